@@ -0,0 +1,152 @@
+package theater.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import theater.Invoice;
+import theater.Performance;
+import theater.Play;
+
+/**
+ * Deterministic synthetic catalogs and invoices for the benchmarks.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Play types used when the mix is {@code classic}.
+     */
+    public static final String[] CLASSIC_TYPES = {"tragedy", "comedy"};
+
+    /**
+     * Play types used when the mix is {@code all}.
+     */
+    public static final String[] ALL_TYPES = {"tragedy", "comedy", "history", "pastoral"};
+
+    private static final long SEED = 207L;
+    static final int MAX_AUDIENCE = 120;
+
+    private BenchmarkData() {
+
+    }
+
+    /**
+     * Return the play types for a named mix.
+     *
+     * @param mix {@code classic} for tragedies and comedies, {@code all} to add histories and pastorals
+     * @return the play types
+     * @throws IllegalArgumentException if the mix is unknown
+     */
+    public static String[] typesFor(String mix) {
+        switch (mix) {
+            case "classic":
+                return CLASSIC_TYPES;
+            case "all":
+                return ALL_TYPES;
+            default:
+                throw new IllegalArgumentException(String.format("unknown play mix: %s", mix));
+        }
+    }
+
+    /**
+     * Create a catalog of plays cycling through the given types.
+     *
+     * @param size  the number of plays
+     * @param types the play types to use
+     * @return the catalog keyed by play id
+     */
+    public static Map<String, Play> catalog(int size, String[] types) {
+        final Map<String, Play> result = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            result.put(playID(i), new Play("Play " + i, types[i % types.length]));
+        }
+        return result;
+    }
+
+    /**
+     * Create an invoice with randomly chosen plays and audiences.
+     *
+     * @param customer    the customer name
+     * @param size        the number of performances
+     * @param catalogSize the number of plays in the catalog the invoice refers to
+     * @return the invoice
+     */
+    public static Invoice invoice(String customer, int size, int catalogSize) {
+        final Random random = new Random(SEED + customer.hashCode());
+        final List<Performance> performances = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            performances.add(new Performance(playID(random.nextInt(catalogSize)), random.nextInt(MAX_AUDIENCE)));
+        }
+        return new Invoice(customer, performances);
+    }
+
+    /**
+     * Create several invoices of the same size.
+     *
+     * @param count       the number of invoices
+     * @param size        the number of performances per invoice
+     * @param catalogSize the number of plays in the catalog the invoices refer to
+     * @return the invoices
+     */
+    public static List<Invoice> invoices(int count, int size, int catalogSize) {
+        final List<Invoice> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(invoice("Customer" + i, size, catalogSize));
+        }
+        return result;
+    }
+
+    /**
+     * Write a catalog in the {@code plays.json} format.
+     *
+     * @param plays the plays keyed by play id
+     * @return the JSON text
+     */
+    public static String playsJson(Map<String, Play> plays) {
+        final StringBuilder result = new StringBuilder("{\n");
+        String separator = "";
+        for (Map.Entry<String, Play> entry : plays.entrySet()) {
+            result.append(separator).append("  \"").append(entry.getKey()).append("\": {\"name\": \"")
+                    .append(entry.getValue().getName()).append("\", \"type\": \"")
+                    .append(entry.getValue().getType()).append("\"}");
+            separator = ",\n";
+        }
+        return result.append("\n}\n").toString();
+    }
+
+    /**
+     * Write invoices in the {@code invoices.json} format.
+     *
+     * @param invoices the invoices
+     * @return the JSON text
+     */
+    public static String invoicesJson(List<Invoice> invoices) {
+        final StringBuilder result = new StringBuilder("[\n");
+        String separator = "";
+        for (Invoice invoice : invoices) {
+            result.append(separator).append("  {\"customer\": \"").append(invoice.getCustomer())
+                    .append("\", \"performances\": [");
+            String performanceSeparator = "";
+            for (Performance performance : invoice.getPerformances()) {
+                result.append(performanceSeparator).append("\n    {\"playID\": \"").append(performance.getPlayID())
+                        .append("\", \"audience\": ").append(performance.getAudience()).append('}');
+                performanceSeparator = ",";
+            }
+            result.append("]}");
+            separator = ",\n";
+        }
+        return result.append("\n]\n").toString();
+    }
+
+    /**
+     * Return the id of the i-th play in a generated catalog.
+     *
+     * @param index the play index
+     * @return the play id
+     */
+    public static String playID(int index) {
+        return "play-" + index;
+    }
+}
@@ -0,0 +1,107 @@
+package theater.benchmark;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+import theater.Invoice;
+import theater.InvoiceStore;
+import theater.PlayCatalog;
+
+/**
+ * Measures the memory retained by a list of {@link Invoice} objects and by {@link InvoiceStore}s holding
+ * the same invoices, on and off the heap, and prints the bytes per performance of each.
+ *
+ * <p>Each form is built on its own, the heap is collected until its use settles, and the heap and
+ * direct buffer memory still in use are compared with the use before the form was built. Run with
+ * {@code java -cp target/benchmarks.jar theater.benchmark.InvoiceStoreFootprint [invoices]
+ * [performances-per-invoice]}; a fixed heap size such as {@code -Xms2g -Xmx2g} gives steadier numbers.</p>
+ */
+public final class InvoiceStoreFootprint {
+
+    private static final int CATALOG_SIZE = 1000;
+    private static final int DEFAULT_INVOICE_COUNT = 100_000;
+    private static final int DEFAULT_INVOICE_SIZE = 20;
+    private static final int GC_ROUNDS = 5;
+    private static final long GC_PAUSE_MILLIS = 50;
+    private static final String DIRECT_POOL = "direct";
+
+    private InvoiceStoreFootprint() {
+
+    }
+
+    /**
+     * Measure the three forms.
+     *
+     * @param args the number of invoices and the performances per invoice, both optional
+     * @throws InterruptedException if interrupted while waiting for the collector
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = DEFAULT_INVOICE_COUNT;
+        int size = DEFAULT_INVOICE_SIZE;
+        if (args.length > 0) {
+            count = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            size = Integer.parseInt(args[1]);
+        }
+        final int invoiceCount = count;
+        final int invoiceSize = size;
+        final PlayCatalog catalog = PlayCatalog.of(BenchmarkData.catalog(CATALOG_SIZE, BenchmarkData.ALL_TYPES));
+        final long performances = (long) invoiceCount * invoiceSize;
+
+        System.out.printf("%d invoices of %d performances%n", invoiceCount, invoiceSize);
+        System.out.printf("%-16s %14s %14s %12s%n", "form", "heap bytes", "direct bytes", "bytes/perf");
+        report("List<Invoice>", performances,
+                () -> BenchmarkData.invoices(invoiceCount, invoiceSize, CATALOG_SIZE));
+        report("InvoiceStore", performances,
+                () -> store(catalog, invoiceCount, invoiceSize, false));
+        report("off-heap store", performances,
+                () -> store(catalog, invoiceCount, invoiceSize, true));
+    }
+
+    /**
+     * Build a store without keeping the invoice objects it was built from.
+     */
+    private static InvoiceStore store(PlayCatalog catalog, int count, int size, boolean offHeap) {
+        final InvoiceStore.Builder builder = new InvoiceStore.Builder(catalog);
+        for (int i = 0; i < count; i++) {
+            builder.add(BenchmarkData.invoice("Customer" + i, size, CATALOG_SIZE));
+        }
+        return builder.build(offHeap);
+    }
+
+    private static void report(String form, long performances, Supplier<Object> factory)
+            throws InterruptedException {
+        final long heapBefore = settledHeapUsed();
+        final long directBefore = directUsed();
+        final Object retained = factory.get();
+        final long heap = settledHeapUsed() - heapBefore;
+        final long direct = directUsed() - directBefore;
+        Reference.reachabilityFence(retained);
+        System.out.printf("%-16s %14d %14d %12.1f%n", form, heap, direct,
+                (heap + direct) / (double) performances);
+    }
+
+    private static long settledHeapUsed() throws InterruptedException {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            memory.gc();
+            Thread.sleep(GC_PAUSE_MILLIS);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static long directUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (DIRECT_POOL.equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,102 @@
+package theater.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import theater.Invoice;
+import theater.JsonLoader;
+import theater.Performance;
+import theater.Play;
+
+/**
+ * Compares loading catalogs and invoices through an org.json object tree, as the tests do, with the
+ * streaming {@link JsonLoader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonLoadBenchmark {
+
+    private static final int CATALOG_SIZE = 10000;
+    private static final int INVOICE_SIZE = 100;
+
+    @Param({"10", "1000"})
+    private int invoiceCount;
+
+    private String playsJson;
+    private String invoicesJson;
+    private Map<String, Play> plays;
+
+    /**
+     * Generate the JSON documents.
+     */
+    @Setup
+    public void setUp() {
+        plays = BenchmarkData.catalog(CATALOG_SIZE, BenchmarkData.ALL_TYPES);
+        playsJson = BenchmarkData.playsJson(plays);
+        invoicesJson = BenchmarkData.invoicesJson(BenchmarkData.invoices(invoiceCount, INVOICE_SIZE, CATALOG_SIZE));
+    }
+
+    /**
+     * Load through org.json trees and copy the fields out.
+     *
+     * @param blackhole sink for the loaded objects
+     */
+    @Benchmark
+    public void orgJson(Blackhole blackhole) {
+        final JSONObject catalog = new JSONObject(playsJson);
+        final Map<String, Play> loaded = new HashMap<>();
+        for (String playID : catalog.keySet()) {
+            final JSONObject play = catalog.getJSONObject(playID);
+            loaded.put(playID, new Play(play.getString("name"), play.getString("type")));
+        }
+        final List<Invoice> invoices = new ArrayList<>();
+        for (Object item : new JSONArray(invoicesJson)) {
+            final JSONObject invoice = (JSONObject) item;
+            final List<Performance> performances = new ArrayList<>();
+            for (Object entry : invoice.getJSONArray("performances")) {
+                final JSONObject performance = (JSONObject) entry;
+                performances.add(new Performance(performance.getString("playID"), performance.getInt("audience")));
+            }
+            invoices.add(new Invoice(invoice.getString("customer"), performances));
+        }
+        blackhole.consume(loaded);
+        blackhole.consume(invoices);
+    }
+
+    /**
+     * Load with the streaming loader, including validating every play id.
+     *
+     * @param blackhole sink for the loaded objects
+     * @throws IOException never, the input is in memory
+     */
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        final Map<String, Play> loaded = JsonLoader.readPlays(new StringReader(playsJson));
+        blackhole.consume(loaded);
+        blackhole.consume(JsonLoader.readInvoices(new StringReader(invoicesJson), loaded));
+    }
+}
@@ -0,0 +1,89 @@
+package theater.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import theater.Invoice;
+import theater.LiveCatalog;
+import theater.Play;
+
+/**
+ * Measures statement throughput on a live catalog with and without a concurrent writer.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiveCatalogBenchmark {
+
+    private static final int CATALOG_SIZE = 1000;
+    private static final int INVOICE_SIZE = 100;
+    private static final int READERS = 3;
+
+    private LiveCatalog catalog;
+    private Invoice invoice;
+    private Play extra;
+    private int next;
+
+    /**
+     * Build the catalog and the invoice.
+     */
+    @Setup
+    public void setUp() {
+        final Map<String, Play> plays = BenchmarkData.catalog(CATALOG_SIZE, BenchmarkData.ALL_TYPES);
+        catalog = new LiveCatalog(plays);
+        invoice = BenchmarkData.invoice("BigCo", INVOICE_SIZE, CATALOG_SIZE);
+        extra = plays.get(BenchmarkData.playID(0));
+    }
+
+    /**
+     * Price a statement while no updates happen.
+     *
+     * @return the total amount
+     */
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(READERS)
+    public long readOnly() {
+        return catalog.statement(invoice).totalAmount();
+    }
+
+    /**
+     * Price a statement while another thread keeps updating the catalog.
+     *
+     * @return the total amount
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(READERS)
+    public long read() {
+        return catalog.statement(invoice).totalAmount();
+    }
+
+    /**
+     * Replace one play of the catalog.
+     *
+     * @return the new version
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public long write() {
+        return catalog.put(BenchmarkData.playID(next++ % CATALOG_SIZE), extra).getVersion();
+    }
+}
@@ -0,0 +1,90 @@
+package theater.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import theater.ColumnarInvoice;
+import theater.Invoice;
+import theater.Play;
+import theater.PlayTypeRegistry;
+import theater.PricingCache;
+import theater.PricingRules;
+
+/**
+ * Compares the hand-written calculators with pricing rules loaded from configuration, and with the same
+ * rules memoized by a {@link PricingCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int CATALOG_SIZE = 100;
+    private static final int INVOICE_SIZE = 10000;
+
+    @Param({"handwritten", "rules", "cached"})
+    private String pricing;
+
+    private Map<String, Play> plays;
+    private Invoice source;
+    private ColumnarInvoice invoice;
+
+    /**
+     * Build an invoice over all play types, priced by the selected calculators.
+     */
+    @Setup
+    public void setUp() {
+        plays = BenchmarkData.catalog(CATALOG_SIZE, BenchmarkData.ALL_TYPES);
+        if ("rules".equals(pricing)) {
+            plays = PricingRules.standard().bind(plays);
+        }
+        else if ("cached".equals(pricing)) {
+            final PlayTypeRegistry registry =
+                    new PricingCache(0, BenchmarkData.MAX_AUDIENCE).cache(PricingRules.standard().registry());
+            final Map<String, Play> cached = new LinkedHashMap<>();
+            for (Map.Entry<String, Play> entry : plays.entrySet()) {
+                final Play play = entry.getValue();
+                cached.put(entry.getKey(), new Play(play.getName(), play.getType(), registry));
+            }
+            plays = cached;
+        }
+        source = BenchmarkData.invoice("BigCo", INVOICE_SIZE, CATALOG_SIZE);
+    }
+
+    /**
+     * Convert the invoice again before every invocation, since columnar invoices cache their totals.
+     */
+    @Setup(Level.Invocation)
+    public void convert() {
+        invoice = ColumnarInvoice.of(source, plays);
+    }
+
+    /**
+     * Measure pricing every performance of the invoice.
+     *
+     * @param blackhole sink for the totals
+     */
+    @Benchmark
+    public void totals(Blackhole blackhole) {
+        blackhole.consume(invoice.totalAmount());
+        blackhole.consume(invoice.volumeCredits());
+    }
+}
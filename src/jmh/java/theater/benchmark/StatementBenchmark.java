@@ -0,0 +1,153 @@
+package theater.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import theater.ColumnarInvoice;
+import theater.Invoice;
+import theater.PerformanceData;
+import theater.Play;
+import theater.Statement;
+import theater.StatementPrinter;
+
+/**
+ * Benchmarks for computing and rendering a single statement.
+ *
+ * <p>Statements, printers and columnar invoices compute their totals once and cache them, so every
+ * benchmark that measures pricing works on an instance created for that invocation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int invoiceSize;
+
+    @Param({"classic", "all"})
+    private String playMix;
+
+    @Param({"10", "10000"})
+    private int catalogSize;
+
+    private Map<String, Play> plays;
+    private Invoice invoice;
+    private List<PerformanceData> performances;
+    private StatementPrinter printer;
+
+    /**
+     * Build the catalog, invoice and the per-line data for the current parameters.
+     */
+    @Setup
+    public void setUp() {
+        plays = BenchmarkData.catalog(catalogSize, BenchmarkData.typesFor(playMix));
+        invoice = BenchmarkData.invoice("BigCo", invoiceSize, catalogSize);
+        performances = new Statement(invoice, plays).getPerformances();
+        printer = new StatementPrinter(invoice, plays);
+    }
+
+    /**
+     * A columnar invoice whose totals have not been computed yet, recreated before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class FreshColumnar {
+
+        private ColumnarInvoice columnar;
+
+        /**
+         * Convert the benchmark's invoice again.
+         *
+         * @param benchmark the benchmark state holding the invoice
+         */
+        @Setup(Level.Invocation)
+        public void setUp(StatementBenchmark benchmark) {
+            columnar = ColumnarInvoice.of(benchmark.invoice, benchmark.plays);
+        }
+    }
+
+    /**
+     * Measure building a statement and its per-line data from an invoice.
+     *
+     * @return the per-line data
+     */
+    @Benchmark
+    public List<PerformanceData> constructStatement() {
+        return new Statement(invoice, plays).getPerformances();
+    }
+
+    /**
+     * Measure pricing every performance of a statement.
+     *
+     * @param blackhole sink for the per-performance amounts
+     */
+    @Benchmark
+    public void amountFor(Blackhole blackhole) {
+        for (PerformanceData performanceData : performances) {
+            blackhole.consume(performanceData.amountFor());
+        }
+    }
+
+    /**
+     * Measure the statement totals.
+     *
+     * @param blackhole sink for the totals
+     */
+    @Benchmark
+    public void totals(Blackhole blackhole) {
+        final Statement statement = new Statement(invoice, plays);
+        blackhole.consume(statement.totalAmount());
+        blackhole.consume(statement.volumeCredits());
+    }
+
+    /**
+     * Measure the statement totals over the columnar representation.
+     *
+     * @param fresh     the columnar invoice to price
+     * @param blackhole sink for the totals
+     */
+    @Benchmark
+    public void columnarTotals(FreshColumnar fresh, Blackhole blackhole) {
+        blackhole.consume(fresh.columnar.totalAmount());
+        blackhole.consume(fresh.columnar.volumeCredits());
+    }
+
+    /**
+     * Measure formatting every performance amount as currency.
+     *
+     * @param blackhole sink for the formatted amounts
+     */
+    @Benchmark
+    public void usd(Blackhole blackhole) {
+        for (PerformanceData performanceData : performances) {
+            blackhole.consume(printer.usd(performanceData.amountFor()));
+        }
+    }
+
+    /**
+     * Measure rendering the plain-text statement.
+     *
+     * @return the rendered statement
+     */
+    @Benchmark
+    public String renderPlainText() {
+        return new StatementPrinter(invoice, plays).statement();
+    }
+}
@@ -0,0 +1,97 @@
+package theater.benchmark;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import theater.Invoice;
+import theater.LatencySnapshot;
+import theater.LiveCatalog;
+import theater.PlainTextStatementRenderer;
+import theater.StatementService;
+
+/**
+ * Drives a {@link StatementService} with an open-loop load at increasing request rates and prints the
+ * achieved throughput and latency for each rate and batch configuration.
+ *
+ * <p>Run with {@code java -cp target/benchmarks.jar theater.benchmark.StatementLoadGenerator
+ * [seconds-per-step] [rate...]}.</p>
+ */
+public final class StatementLoadGenerator {
+
+    private static final int CATALOG_SIZE = 1000;
+    private static final int INVOICE_SIZE = 20;
+    private static final int INVOICE_COUNT = 10000;
+    private static final int DEFAULT_SECONDS = 5;
+    private static final int[] DEFAULT_RATES = {1_000, 10_000, 50_000, 100_000, 200_000, 400_000};
+    private static final int[] BATCH_SIZES = {1, StatementService.DEFAULT_MAX_BATCH_SIZE};
+    private static final long BATCH_DELAY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private StatementLoadGenerator() {
+
+    }
+
+    /**
+     * Run the load steps.
+     *
+     * @param args the seconds per step followed by the request rates per second, all optional
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = DEFAULT_SECONDS;
+        int[] rates = DEFAULT_RATES;
+        if (args.length > 0) {
+            seconds = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            rates = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                rates[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        final LiveCatalog catalog = new LiveCatalog(BenchmarkData.catalog(CATALOG_SIZE, BenchmarkData.ALL_TYPES));
+        final List<Invoice> invoices = BenchmarkData.invoices(INVOICE_COUNT, INVOICE_SIZE, CATALOG_SIZE);
+        final int workers = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%10s %6s %12s %10s %10s %10s %10s%n",
+                "rate/s", "batch", "achieved/s", "p50 us", "p99 us", "max us", "rejected");
+        for (int batchSize : BATCH_SIZES) {
+            for (int rate : rates) {
+                try (StatementService service = new StatementService(catalog, new PlainTextStatementRenderer(),
+                        workers, StatementService.DEFAULT_QUEUE_CAPACITY, batchSize,
+                        batchSize == 1 ? 0 : BATCH_DELAY_NANOS)) {
+                    // one short step to warm up, then the measured step
+                    run(service, invoices, rate, 1);
+                    service.resetStatistics();
+                    final long elapsed = run(service, invoices, rate, seconds);
+                    final LatencySnapshot latency = service.latency();
+                    System.out.printf("%10d %6d %12.0f %10.1f %10.1f %10.1f %10d%n", rate, batchSize,
+                            service.getCompleted() / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+                            latency.getMedian() / NANOS_PER_MICRO, latency.getP99() / NANOS_PER_MICRO,
+                            latency.getMax() / NANOS_PER_MICRO, service.getRejected());
+                }
+            }
+        }
+    }
+
+    private static long run(StatementService service, List<Invoice> invoices, int rate, int seconds) {
+        final long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime();
+        final long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long next = start;
+        int index = 0;
+        CompletableFuture<String> last = CompletableFuture.completedFuture("");
+        while (next < end) {
+            final long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            last = service.submit(invoices.get(index++ % invoices.size()));
+            next += interval;
+        }
+        last.exceptionally(error -> "").join();
+        return System.nanoTime() - start;
+    }
+}
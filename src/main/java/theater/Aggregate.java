@@ -0,0 +1,222 @@
+package theater;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Revenue, volume credits and performance counts of a set of invoices, grouped by play id, play type
+ * or customer.
+ *
+ * <p>An aggregate only holds one running total per group, however many invoices were added to it.
+ * Partial aggregates built over disjoint parts of the input, for example on different threads, are
+ * combined with {@link #merge(Aggregate)}; the result is the same whichever way the input was split.
+ * Totals are {@code long} so that a whole quarter of billing data cannot overflow them. Instances are
+ * not thread-safe.</p>
+ */
+public final class Aggregate {
+
+    private final GroupBy groupBy;
+    private final Map<String, Totals> groups = new HashMap<>();
+
+    /**
+     * Create an empty aggregate.
+     *
+     * @param groupBy the dimension to group by
+     */
+    public Aggregate(GroupBy groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * Return the dimension this aggregate groups by.
+     *
+     * @return the dimension
+     */
+    public GroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * Add one performance.
+     *
+     * @param customer        the customer of the invoice the performance is on
+     * @param playID          the id of the play that was performed
+     * @param performanceData the performance and its play
+     * @throws IllegalArgumentException if the play type cannot be priced
+     */
+    public void add(String customer, String playID, PerformanceData performanceData) {
+        final Totals totals = groups.computeIfAbsent(
+                groupBy.keyOf(customer, playID, performanceData.getType()), key -> new Totals());
+        final long revenue = Money.add(totals.revenue, performanceData.amountFor());
+        totals.volumeCredits = Math.addExact(totals.volumeCredits, performanceData.volumeCredits());
+        totals.revenue = revenue;
+        totals.performances++;
+    }
+
+    /**
+     * Add every performance of an invoice.
+     *
+     * @param invoice the invoice
+     * @param plays   the plays for the performances in the invoice
+     * @throws IllegalArgumentException if the invoice uses an unknown play or a play type that cannot be priced
+     */
+    public void add(Invoice invoice, Map<String, Play> plays) {
+        for (Performance performance : invoice.getPerformances()) {
+            add(invoice.getCustomer(), performance.getPlayID(),
+                    new PerformanceData(performance, playFor(plays, performance.getPlayID())));
+        }
+    }
+
+    /**
+     * Add the totals of another aggregate to this one.
+     *
+     * @param other an aggregate over a disjoint part of the input, grouped by the same dimension
+     * @return this aggregate
+     * @throws IllegalArgumentException if the other aggregate is grouped by a different dimension
+     */
+    public Aggregate merge(Aggregate other) {
+        if (other.groupBy != groupBy) {
+            throw new IllegalArgumentException(
+                    String.format("cannot merge aggregate grouped by %s into %s", other.groupBy, groupBy));
+        }
+        for (Map.Entry<String, Totals> entry : other.groups.entrySet()) {
+            final Totals totals = groups.computeIfAbsent(entry.getKey(), key -> new Totals());
+            final long revenue = Money.add(totals.revenue, entry.getValue().revenue);
+            totals.volumeCredits = Math.addExact(totals.volumeCredits, entry.getValue().volumeCredits);
+            totals.revenue = revenue;
+            totals.performances += entry.getValue().performances;
+        }
+        return this;
+    }
+
+    /**
+     * Return the groups that have at least one performance.
+     *
+     * @return an unmodifiable view of the group keys
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    /**
+     * Return the revenue of a group.
+     *
+     * @param key the group key
+     * @return the revenue in cents, or 0 if the group has no performances
+     */
+    public long getRevenue(String key) {
+        final Totals totals = groups.get(key);
+        if (totals == null) {
+            return 0;
+        }
+        return totals.revenue;
+    }
+
+    /**
+     * Return the volume credits earned in a group.
+     *
+     * @param key the group key
+     * @return the volume credits, or 0 if the group has no performances
+     */
+    public long getVolumeCredits(String key) {
+        final Totals totals = groups.get(key);
+        if (totals == null) {
+            return 0;
+        }
+        return totals.volumeCredits;
+    }
+
+    /**
+     * Return the number of performances in a group.
+     *
+     * @param key the group key
+     * @return the number of performances
+     */
+    public long getPerformanceCount(String key) {
+        final Totals totals = groups.get(key);
+        if (totals == null) {
+            return 0;
+        }
+        return totals.performances;
+    }
+
+    /**
+     * Return the revenue of all groups together.
+     *
+     * @return the total revenue in cents
+     */
+    public long getTotalRevenue() {
+        long result = 0;
+        for (Totals totals : groups.values()) {
+            result = Money.add(result, totals.revenue);
+        }
+        return result;
+    }
+
+    /**
+     * Return the volume credits of all groups together.
+     *
+     * @return the total volume credits
+     */
+    public long getTotalVolumeCredits() {
+        long result = 0;
+        for (Totals totals : groups.values()) {
+            result = Math.addExact(result, totals.volumeCredits);
+        }
+        return result;
+    }
+
+    /**
+     * Return the groups with the highest revenue.
+     *
+     * @param limit the maximum number of groups to return
+     * @return the group keys, highest revenue first, ties broken by key
+     */
+    public List<String> topByRevenue(int limit) {
+        return top(limit, Comparator.comparingLong((Map.Entry<String, Totals> entry) -> entry.getValue().revenue));
+    }
+
+    /**
+     * Return the groups with the most volume credits.
+     *
+     * @param limit the maximum number of groups to return
+     * @return the group keys, most volume credits first, ties broken by key
+     */
+    public List<String> topByVolumeCredits(int limit) {
+        return top(limit,
+                Comparator.comparingLong((Map.Entry<String, Totals> entry) -> entry.getValue().volumeCredits));
+    }
+
+    private List<String> top(int limit, Comparator<Map.Entry<String, Totals>> order) {
+        final List<Map.Entry<String, Totals>> entries = new ArrayList<>(groups.entrySet());
+        entries.sort(order.reversed().thenComparing(Map.Entry.comparingByKey()));
+        final List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            result.add(entries.get(i).getKey());
+        }
+        return result;
+    }
+
+    static Play playFor(Map<String, Play> plays, String playID) {
+        final Play play = plays.get(playID);
+        if (play == null) {
+            throw new IllegalArgumentException(String.format("unknown play: %s", playID));
+        }
+        return play;
+    }
+
+    /**
+     * Running totals of one group.
+     */
+    private static final class Totals {
+
+        private long revenue;
+        private long volumeCredits;
+        private long performances;
+    }
+}
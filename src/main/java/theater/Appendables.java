@@ -0,0 +1,87 @@
+package theater;
+
+import java.io.IOException;
+
+/**
+ * Helpers for writing values into an {@link Appendable} without building intermediate strings.
+ */
+final class Appendables {
+
+    private static final int RADIX = 10;
+
+    private Appendables() {
+
+    }
+
+    /**
+     * Append the decimal digits of a number.
+     *
+     * @param out   the sink to append to
+     * @param value the number
+     * @throws IOException if the sink fails
+     */
+    static void appendInt(Appendable out, long value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+            return;
+        }
+        // negate into the negative range so Long.MIN_VALUE needs no special case
+        long remaining = value;
+        if (remaining < 0) {
+            out.append('-');
+        }
+        else {
+            remaining = -remaining;
+        }
+        long divisor = -1;
+        while (remaining / RADIX <= divisor) {
+            divisor *= RADIX;
+        }
+        while (divisor < 0) {
+            out.append((char) ('0' + remaining / divisor));
+            remaining %= divisor;
+            divisor /= RADIX;
+        }
+    }
+
+    /**
+     * Append text with the characters that are special in HTML escaped.
+     *
+     * @param out  the sink to append to
+     * @param text the text to escape
+     * @throws IOException if the sink fails
+     */
+    static void appendHtml(Appendable out, String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final String replacement = htmlEscape(text.charAt(i));
+            if (replacement != null) {
+                out.append(text, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    private static String htmlEscape(char c) {
+        final String result;
+        switch (c) {
+            case '&':
+                result = "&amp;";
+                break;
+            case '<':
+                result = "&lt;";
+                break;
+            case '>':
+                result = "&gt;";
+                break;
+            case '"':
+                result = "&quot;";
+                break;
+            default:
+                result = null;
+                break;
+        }
+        return result;
+    }
+}
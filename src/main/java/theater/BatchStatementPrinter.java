@@ -0,0 +1,96 @@
+package theater;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Renders the statements for many invoices in parallel against a shared play catalog.
+ *
+ * <p>Invoices are split into chunks that run as independent tasks on the configured executor,
+ * such as a {@link ForkJoinPool} or, on newer JDKs, a virtual-thread-per-task executor.
+ * Results are returned in the order of the input, and an invoice that fails to render is
+ * reported in its {@link StatementResult} without affecting the rest of the batch.</p>
+ */
+public class BatchStatementPrinter {
+
+    /**
+     * Default number of invoices rendered by each task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final Map<String, Play> plays;
+    private final Executor executor;
+    private final int chunkSize;
+
+    /**
+     * Create a batch printer running on the common fork-join pool.
+     *
+     * @param plays the plays shared by all invoices; must not be modified while a batch runs
+     */
+    public BatchStatementPrinter(Map<String, Play> plays) {
+        this(plays, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a batch printer running on the given executor.
+     *
+     * @param plays     the plays shared by all invoices; must not be modified while a batch runs
+     * @param executor  the executor the rendering tasks are submitted to
+     * @param chunkSize the number of invoices rendered by each task
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public BatchStatementPrinter(Map<String, Play> plays, Executor executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(String.format("chunk size must be positive: %d", chunkSize));
+        }
+        this.plays = plays;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Render the statements for all invoices.
+     *
+     * @param invoices the invoices to render
+     * @return one result per invoice, in the iteration order of {@code invoices}
+     */
+    public List<StatementResult> printAll(Collection<Invoice> invoices) {
+        final Invoice[] input = invoices.toArray(new Invoice[0]);
+        final StatementResult[] results = new StatementResult[input.length];
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < input.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, input.length);
+            tasks.add(CompletableFuture.runAsync(() -> renderChunk(input, results, from, to), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        return Arrays.asList(results);
+    }
+
+    private void renderChunk(Invoice[] input, StatementResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = render(input[i]);
+        }
+    }
+
+    /**
+     * Render the statement for one invoice, capturing any failure in the result.
+     *
+     * @param invoice the invoice to render
+     * @return the result for the invoice
+     */
+    protected StatementResult render(Invoice invoice) {
+        try {
+            return StatementResult.success(invoice, new StatementPrinter(invoice, plays).statement());
+        }
+        catch (RuntimeException exception) {
+            return StatementResult.failure(invoice, exception);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package theater;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a {@link BillingRun}: one {@link ShardReport} per shard and the overall throughput.
+ */
+public final class BillingReport {
+
+    private final List<ShardReport> shards;
+    private final long elapsedNanos;
+
+    BillingReport(List<ShardReport> shards, long elapsedNanos) {
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Return the reports of all shards.
+     *
+     * @return the shard reports, in shard order
+     */
+    public List<ShardReport> getShards() {
+        return shards;
+    }
+
+    /**
+     * Return whether every shard has been written, in this run or an earlier one.
+     *
+     * @return true if the run is complete
+     */
+    public boolean isComplete() {
+        for (ShardReport shard : shards) {
+            if (!shard.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the shards that failed in this run. Running again retries them.
+     *
+     * @return the failed shard reports, in shard order
+     */
+    public List<ShardReport> getFailedShards() {
+        final List<ShardReport> result = new ArrayList<>();
+        for (ShardReport shard : shards) {
+            if (!shard.isSuccess()) {
+                result.add(shard);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of invoices written by this run, excluding resumed shards.
+     *
+     * @return the invoice count
+     */
+    public long getInvoicesWritten() {
+        long result = 0;
+        for (ShardReport shard : shards) {
+            if (shard.isSuccess() && !shard.isResumed()) {
+                result += shard.getInvoices();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the wall-clock time of this run.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Return the overall throughput of this run.
+     *
+     * @return invoices written per second, or 0 if no time was recorded
+     */
+    public double getThroughput() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return getInvoicesWritten() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,218 @@
+package theater;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * A billing run over a large list of invoices that is split into shards and can be resumed after a crash.
+ *
+ * <p>The invoices are partitioned into consecutive shards of {@code shardSize} invoices, which are
+ * rendered in parallel on the configured executor. Each shard's statements are written to their own file
+ * in the output directory, first under a temporary name and then atomically renamed, after which the
+ * shard is appended to a checkpoint manifest and forced to disk. Running again over the same invoices
+ * skips every shard recorded in the manifest, so an interrupted run resumes with the unfinished shards
+ * only. A line torn by a crash is cut off the manifest before the run appends to it, so later records
+ * start on a line of their own; a torn header counts as an empty manifest. The manifest also records the
+ * shard size and a fingerprint of the input, and a run over different invoices is refused rather than
+ * mixed with stale output.</p>
+ */
+public class BillingRun {
+
+    /**
+     * Name of the checkpoint manifest in the output directory.
+     */
+    public static final String MANIFEST = "checkpoint.log";
+
+    private static final String MAGIC = "theater-billing-run";
+    private static final int VERSION = 1;
+    private static final String SHARD = "shard";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int FINGERPRINT_MULTIPLIER = 31;
+
+    private final Map<String, Play> plays;
+    private final Path directory;
+    private final int shardSize;
+    private final Executor executor;
+    private final StatementWriter writer = new StatementWriter();
+
+    /**
+     * Create a billing run on the common fork-join pool.
+     *
+     * @param plays     the plays shared by all invoices; must not be modified while the run is active
+     * @param directory the directory for the statement files and the manifest
+     * @param shardSize the number of invoices per shard
+     * @throws IllegalArgumentException if the shard size is not positive
+     */
+    public BillingRun(Map<String, Play> plays, Path directory, int shardSize) {
+        this(plays, directory, shardSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a billing run on the given executor.
+     *
+     * @param plays     the plays shared by all invoices; must not be modified while the run is active
+     * @param directory the directory for the statement files and the manifest
+     * @param shardSize the number of invoices per shard
+     * @param executor  the executor the shards run on
+     * @throws IllegalArgumentException if the shard size is not positive
+     */
+    public BillingRun(Map<String, Play> plays, Path directory, int shardSize, Executor executor) {
+        if (shardSize <= 0) {
+            throw new IllegalArgumentException(String.format("shard size must be positive: %d", shardSize));
+        }
+        this.plays = plays;
+        this.directory = directory;
+        this.shardSize = shardSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Return the file holding the statements of a shard.
+     *
+     * @param shard the shard number
+     * @return the path of the shard's statement file
+     */
+    public Path statementFile(int shard) {
+        return directory.resolve(String.format("statements-%06d.txt", shard));
+    }
+
+    /**
+     * Write the statements of every shard that is not finished yet.
+     *
+     * @param invoices all invoices of the run, in the same order on every attempt
+     * @return the report of every shard, including those finished by earlier runs
+     * @throws IOException if the output directory or the manifest cannot be written
+     * @throws IllegalArgumentException if the directory holds a manifest of a run over different invoices
+     */
+    public BillingReport run(List<Invoice> invoices) throws IOException {
+        final long start = System.nanoTime();
+        Files.createDirectories(directory);
+        final String header = String.format("%s %d %d %d %s", MAGIC, VERSION, shardSize, invoices.size(),
+                Long.toHexString(fingerprint(invoices)));
+        final Map<Integer, ShardReport> finished = readManifest(header);
+        final int shardCount = (invoices.size() + shardSize - 1) / shardSize;
+        final List<CompletableFuture<ShardReport>> tasks = new ArrayList<>(shardCount);
+        try (FileChannel manifest = FileChannel.open(directory.resolve(MANIFEST), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (manifest.size() == 0) {
+                append(manifest, header);
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                final ShardReport done = finished.get(shard);
+                if (done != null && Files.exists(statementFile(shard))) {
+                    tasks.add(CompletableFuture.completedFuture(done));
+                }
+                else {
+                    final int number = shard;
+                    final List<Invoice> slice =
+                            invoices.subList(shard * shardSize, Math.min((shard + 1) * shardSize, invoices.size()));
+                    tasks.add(CompletableFuture.supplyAsync(() -> runShard(number, slice, manifest), executor));
+                }
+            }
+            final List<ShardReport> reports = new ArrayList<>(shardCount);
+            for (CompletableFuture<ShardReport> task : tasks) {
+                reports.add(task.join());
+            }
+            return new BillingReport(reports, System.nanoTime() - start);
+        }
+    }
+
+    private ShardReport runShard(int shard, List<Invoice> slice, FileChannel manifest) {
+        final long start = System.nanoTime();
+        final Path target = statementFile(shard);
+        final Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+        try {
+            final long bytes = new StatementExporter(plays, writer, StatementExporter.DEFAULT_BUFFER_SIZE)
+                    .export(slice, temporary);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            final long nanos = System.nanoTime() - start;
+            append(manifest, String.format("%s %d %d %d %d", SHARD, shard, slice.size(), bytes, nanos));
+            return new ShardReport(shard, slice.size(), bytes, nanos, false, null);
+        }
+        catch (IOException | RuntimeException exception) {
+            try {
+                Files.deleteIfExists(temporary);
+            }
+            catch (IOException cleanup) {
+                exception.addSuppressed(cleanup);
+            }
+            return new ShardReport(shard, slice.size(), 0, System.nanoTime() - start, false, exception);
+        }
+    }
+
+    private static void append(FileChannel manifest, String line) throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (manifest) {
+            while (bytes.hasRemaining()) {
+                manifest.write(bytes);
+            }
+            manifest.force(false);
+        }
+    }
+
+    private Map<Integer, ShardReport> readManifest(String header) throws IOException {
+        final Map<Integer, ShardReport> result = new HashMap<>();
+        final Path path = directory.resolve(MANIFEST);
+        if (!Files.exists(path)) {
+            return result;
+        }
+        final byte[] bytes = Files.readAllBytes(path);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            // cut off the line torn by a crash, or the next record would be appended onto it
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+        }
+        final List<String> lines = new String(bytes, 0, end, StandardCharsets.UTF_8).lines()
+                .collect(Collectors.toList());
+        if (lines.isEmpty()) {
+            return result;
+        }
+        if (!lines.get(0).equals(header)) {
+            throw new IllegalArgumentException(
+                    String.format("%s belongs to a different run: %s", path, lines.get(0)));
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            final String[] fields = line.split(" ");
+            // a malformed line is ignored, and that shard runs again
+            if (fields.length == 5 && SHARD.equals(fields[0])) {
+                try {
+                    final int shard = Integer.parseInt(fields[1]);
+                    result.put(shard, new ShardReport(shard, Integer.parseInt(fields[2]),
+                            Long.parseLong(fields[3]), Long.parseLong(fields[4]), true, null));
+                }
+                catch (NumberFormatException exception) {
+                    // same as a malformed line
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long fingerprint(List<Invoice> invoices) {
+        long result = invoices.size();
+        for (Invoice invoice : invoices) {
+            result = result * FINGERPRINT_MULTIPLIER ^ StatementCache.hash(invoice);
+        }
+        return result;
+    }
+}
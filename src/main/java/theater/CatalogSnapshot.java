@@ -0,0 +1,82 @@
+package theater;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a play catalog that loads without any JSON parsing.
+ *
+ * <p>Each play is one unit holding its id, name and type as length-prefixed UTF-8 strings.</p>
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x54484354;
+
+    private CatalogSnapshot() {
+
+    }
+
+    /**
+     * Write a catalog to a snapshot file, replacing any existing file.
+     *
+     * @param path  the file to write
+     * @param plays the catalog keyed by play id
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Map<String, Play> plays) throws IOException {
+        write(path, plays, SnapshotFile.DEFAULT_SEGMENT_SIZE);
+    }
+
+    static void write(Path path, Map<String, Play> plays, int segmentSize) throws IOException {
+        try (SnapshotFile.Output out = new SnapshotFile.Output(path, MAGIC, segmentSize)) {
+            for (Map.Entry<String, Play> entry : plays.entrySet()) {
+                final byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                final byte[] name = entry.getValue().getName().getBytes(StandardCharsets.UTF_8);
+                final byte[] type = entry.getValue().getType().getBytes(StandardCharsets.UTF_8);
+                out.beginUnit(SnapshotFile.stringSize(id) + SnapshotFile.stringSize(name)
+                        + SnapshotFile.stringSize(type));
+                out.putString(id);
+                out.putString(name);
+                out.putString(type);
+            }
+        }
+    }
+
+    /**
+     * Load a catalog from a snapshot file, binding play types in the default registry.
+     *
+     * @param path the file to read
+     * @return the catalog keyed by play id, in the order it was written
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a catalog snapshot
+     */
+    public static Map<String, Play> read(Path path) throws IOException {
+        return read(path, PlayTypeRegistry.getDefault());
+    }
+
+    /**
+     * Load a catalog from a snapshot file.
+     *
+     * @param path     the file to read
+     * @param registry the registry to resolve play types in
+     * @return the catalog keyed by play id, in the order it was written
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a catalog snapshot
+     */
+    public static Map<String, Play> read(Path path, PlayTypeRegistry registry) throws IOException {
+        final SnapshotFile.Input in = new SnapshotFile.Input(path, MAGIC);
+        final Map<String, Play> result = new LinkedHashMap<>();
+        for (int i = 0; i < in.getUnitCount(); i++) {
+            long position = in.unitOffset(i);
+            final String id = in.getString(position);
+            position = in.skipString(position);
+            final String name = in.getString(position);
+            position = in.skipString(position);
+            result.put(id, new Play(name, in.getString(position), registry));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,250 @@
+package theater;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, column-oriented form of an invoice for invoices with very many performances.
+ *
+ * <p>Instead of one {@link Performance} and one {@link PerformanceData} object per line, the audiences
+ * and plays are held in parallel {@code int} arrays, and each distinct play is stored once together
+ * with its calculator, either per invoice or shared with a {@link PlayCatalog}. Totals are computed once,
+ * on first use: the audiences are gathered per calculator and each calculator prices its whole run in
+ * one bulk call, so the per-row work is a tight loop instead of a call through the interface.
+ * Individual lines are available as {@link PerformanceData} views created on demand.</p>
+ */
+public final class ColumnarInvoice {
+
+    private static final int INITIAL_GROUPS = 8;
+
+    private final String customer;
+    private final int[] audiences;
+    private final int[] playIndexes;
+    private final String[] playIDs;
+    private final Play[] plays;
+    private final PerformanceCalculator[] calculators;
+
+    private long totalAmount;
+    private long volumeCredits;
+    private volatile boolean totalsComputed;
+
+    ColumnarInvoice(String customer, int[] audiences, int[] playIndexes, String[] playIDs, Play[] plays,
+                    PerformanceCalculator[] calculators) {
+        this.customer = customer;
+        this.audiences = audiences;
+        this.playIndexes = playIndexes;
+        this.playIDs = playIDs;
+        this.plays = plays;
+        this.calculators = calculators;
+    }
+
+    /**
+     * Convert an invoice into columnar form.
+     *
+     * @param invoice the invoice
+     * @param plays   the plays for the performances in the invoice
+     * @return the columnar invoice
+     * @throws IllegalArgumentException if a performance refers to a play that is not in {@code plays}
+     */
+    public static ColumnarInvoice of(Invoice invoice, Map<String, Play> plays) {
+        final List<Performance> performances = invoice.getPerformances();
+        final int size = performances.size();
+        final int[] audiences = new int[size];
+        final int[] playIndexes = new int[size];
+        final Map<String, Integer> indexByID = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            final Performance performance = performances.get(i);
+            final String playID = performance.getPlayID();
+            Integer index = indexByID.get(playID);
+            if (index == null) {
+                if (!plays.containsKey(playID)) {
+                    throw new IllegalArgumentException(String.format("unknown play: %s", playID));
+                }
+                index = indexByID.size();
+                indexByID.put(playID, index);
+            }
+            audiences[i] = performance.getAudience();
+            playIndexes[i] = index;
+        }
+        final String[] playIDs = new String[indexByID.size()];
+        final Play[] distinctPlays = new Play[indexByID.size()];
+        final PerformanceCalculator[] calculators = new PerformanceCalculator[indexByID.size()];
+        for (Map.Entry<String, Integer> entry : indexByID.entrySet()) {
+            final Play play = plays.get(entry.getKey());
+            playIDs[entry.getValue()] = entry.getKey();
+            distinctPlays[entry.getValue()] = play;
+            calculators[entry.getValue()] = play.getCalculator();
+        }
+        return new ColumnarInvoice(invoice.getCustomer(), audiences, playIndexes, playIDs, distinctPlays,
+                calculators);
+    }
+
+    /**
+     * Get the customer name for this invoice.
+     *
+     * @return the customer name
+     */
+    public String getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Return the number of performances.
+     *
+     * @return the number of performances
+     */
+    public int size() {
+        return audiences.length;
+    }
+
+    /**
+     * Return the audience of one performance.
+     *
+     * @param row the index of the performance
+     * @return the audience size
+     */
+    public int getAudience(int row) {
+        return audiences[row];
+    }
+
+    /**
+     * Return the play of one performance.
+     *
+     * @param row the index of the performance
+     * @return the play
+     */
+    public Play getPlay(int row) {
+        return plays[playIndexes[row]];
+    }
+
+    /**
+     * Return one performance as a {@link PerformanceData} view.
+     *
+     * @param row the index of the performance
+     * @return a new view of the performance
+     */
+    public PerformanceData row(int row) {
+        final int playIndex = playIndexes[row];
+        return new PerformanceData(new Performance(playIDs[playIndex], audiences[row]), plays[playIndex]);
+    }
+
+    /**
+     * Return all performances as a list of views created on access.
+     *
+     * @return an unmodifiable list view of the performances
+     */
+    public List<PerformanceData> rows() {
+        return new AbstractList<PerformanceData>() {
+            @Override
+            public PerformanceData get(int index) {
+                return row(index);
+            }
+
+            @Override
+            public int size() {
+                return audiences.length;
+            }
+        };
+    }
+
+    /**
+     * Get total amount for all performances.
+     *
+     * @return the total amount in cents
+     * @throws ArithmeticException if the total does not fit in a {@code long}
+     */
+    public long totalAmount() {
+        computeTotals();
+        return totalAmount;
+    }
+
+    /**
+     * Get total volume credits for all performances.
+     *
+     * @return the total volume credits
+     */
+    public long volumeCredits() {
+        computeTotals();
+        return volumeCredits;
+    }
+
+    /**
+     * Compute both totals once, pricing the rows of each calculator together in one bulk call.
+     */
+    private void computeTotals() {
+        if (totalsComputed) {
+            return;
+        }
+        final int[] audience = audiences;
+        final int[] playIndex = playIndexes;
+        // number the distinct calculators, which several plays of the same type share
+        final Map<PerformanceCalculator, Integer> groups = new IdentityHashMap<>();
+        final int[] groupOfPlay = new int[calculators.length];
+        int[] counts = new int[INITIAL_GROUPS];
+        for (int i = 0; i < audience.length; i++) {
+            int group = groupOfPlay[playIndex[i]] - 1;
+            if (group < 0) {
+                group = groups.computeIfAbsent(calculators[playIndex[i]], calculator -> groups.size());
+                groupOfPlay[playIndex[i]] = group + 1;
+                if (group == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            counts[group]++;
+        }
+        final PerformanceCalculator[] groupCalculators = new PerformanceCalculator[groups.size()];
+        for (Map.Entry<PerformanceCalculator, Integer> entry : groups.entrySet()) {
+            groupCalculators[entry.getValue()] = entry.getKey();
+        }
+        long amount = 0;
+        long credits = 0;
+        if (groupCalculators.length == 1) {
+            amount = groupCalculators[0].totalAmount(audience, 0, audience.length);
+            credits = groupCalculators[0].totalVolumeCredits(audience, 0, audience.length);
+        }
+        else if (groupCalculators.length > 1) {
+            // gather the audiences of each calculator into one contiguous run
+            final int[] start = new int[groupCalculators.length + 1];
+            for (int group = 0; group < groupCalculators.length; group++) {
+                start[group + 1] = start[group] + counts[group];
+            }
+            final int[] next = Arrays.copyOf(start, groupCalculators.length);
+            final int[] grouped = new int[audience.length];
+            for (int i = 0; i < audience.length; i++) {
+                grouped[next[groupOfPlay[playIndex[i]] - 1]++] = audience[i];
+            }
+            for (int group = 0; group < groupCalculators.length; group++) {
+                amount = Money.add(amount,
+                        groupCalculators[group].totalAmount(grouped, start[group], start[group + 1]));
+                credits = Math.addExact(credits,
+                        groupCalculators[group].totalVolumeCredits(grouped, start[group], start[group + 1]));
+            }
+        }
+        totalAmount = amount;
+        volumeCredits = credits;
+        // the volatile write publishes both totals to other threads
+        totalsComputed = true;
+    }
+
+    /**
+     * Render the statement for this invoice without creating per-line objects.
+     *
+     * @param out      the sink to write to
+     * @param renderer the output format
+     * @throws IOException if the sink fails
+     */
+    public void render(Appendable out, StatementRenderer renderer) throws IOException {
+        renderer.header(out, customer);
+        for (int i = 0; i < audiences.length; i++) {
+            final int playIndex = playIndexes[i];
+            renderer.line(out, plays[playIndex].getName(), audiences[i],
+                    calculators[playIndex].amountFor(audiences[i]));
+        }
+        renderer.footer(out, totalAmount(), volumeCredits());
+    }
+}
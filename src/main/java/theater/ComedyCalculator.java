@@ -0,0 +1,26 @@
+package theater;
+
+/**
+ * Pricing rules for comedies.
+ */
+public final class ComedyCalculator implements PerformanceCalculator {
+
+    @Override
+    public long amountFor(int audience) {
+        long result = Constants.COMEDY_BASE_AMOUNT;
+        if (audience > Constants.COMEDY_AUDIENCE_THRESHOLD) {
+            result += Constants.COMEDY_OVER_BASE_CAPACITY_AMOUNT
+                    + ((long) Constants.COMEDY_OVER_BASE_CAPACITY_PER_PERSON
+                    * (audience - Constants.COMEDY_AUDIENCE_THRESHOLD));
+        }
+        result += (long) Constants.COMEDY_AMOUNT_PER_AUDIENCE * audience;
+        return result;
+    }
+
+    @Override
+    public int volumeCredits(int audience) {
+        // add extra credit for every five comedy attendees
+        return Math.addExact(Math.max(audience - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0),
+                audience / Constants.COMEDY_EXTRA_VOLUME_FACTOR);
+    }
+}
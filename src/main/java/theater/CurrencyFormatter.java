@@ -0,0 +1,195 @@
+package theater;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats amounts in cents as currency for a locale, exactly and without creating temporary objects.
+ *
+ * <p>The symbols, separators and grouping of the locale's currency format are captured once when the
+ * formatter is created; formatting itself only appends characters to the caller's buffer. Amounts are
+ * held in hundredths of the currency unit and shown with the currency's default number of fraction
+ * digits: currencies without minor units round to whole units and currencies with three digits get a
+ * trailing zero, half-even as {@link NumberFormat} does. Instances are immutable and can be shared freely
+ * between threads.</p>
+ *
+ * <p>Digits are always ASCII, and grouping uses the single grouping size of the locale's
+ * {@link DecimalFormat}. Like {@link NumberFormat}, this does not produce non-uniform groupings such as
+ * the Indian lakh and crore: {@code en_IN} amounts are grouped in threes.</p>
+ */
+public final class CurrencyFormatter {
+
+    private static final Map<Locale, CurrencyFormatter> INSTANCES = new ConcurrentHashMap<>();
+
+    private static final int RADIX = 10;
+    private static final long MAX_POWER_OF_TEN = 1_000_000_000_000_000_000L;
+    private static final int CENT_DIGITS = 2;
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final int groupingSize;
+    private final int fractionDigits;
+
+    private CurrencyFormatter(Locale locale) {
+        final NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        if (format instanceof DecimalFormat) {
+            final DecimalFormat decimalFormat = (DecimalFormat) format;
+            final DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            positivePrefix = decimalFormat.getPositivePrefix();
+            positiveSuffix = decimalFormat.getPositiveSuffix();
+            negativePrefix = decimalFormat.getNegativePrefix();
+            negativeSuffix = decimalFormat.getNegativeSuffix();
+            groupingSeparator = symbols.getGroupingSeparator();
+            decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            if (decimalFormat.isGroupingUsed()) {
+                groupingSize = decimalFormat.getGroupingSize();
+            }
+            else {
+                groupingSize = 0;
+            }
+        }
+        else {
+            final DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            positivePrefix = symbols.getCurrencySymbol();
+            positiveSuffix = "";
+            negativePrefix = symbols.getMinusSign() + positivePrefix;
+            negativeSuffix = "";
+            groupingSeparator = symbols.getGroupingSeparator();
+            decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            groupingSize = 0;
+        }
+        final int digits = format.getCurrency().getDefaultFractionDigits();
+        if (digits < 0) {
+            // pseudo-currencies have no minor unit defined; keep the cents
+            fractionDigits = CENT_DIGITS;
+        }
+        else {
+            fractionDigits = digits;
+        }
+    }
+
+    /**
+     * Return the formatter for a locale's currency.
+     *
+     * @param locale the locale
+     * @return the shared formatter for the locale
+     */
+    public static CurrencyFormatter forLocale(Locale locale) {
+        return INSTANCES.computeIfAbsent(locale, CurrencyFormatter::new);
+    }
+
+    /**
+     * Format an amount as a new string.
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public String format(long cents) {
+        final StringBuilder result = new StringBuilder();
+        appendTo(result, cents);
+        return result.toString();
+    }
+
+    /**
+     * Append a formatted amount to a string builder.
+     *
+     * @param out   the builder to append to
+     * @param cents the amount in cents
+     */
+    public void appendTo(StringBuilder out, long cents) {
+        try {
+            appendTo((Appendable) out, cents);
+        }
+        catch (IOException exception) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Append a formatted amount to any character sink.
+     *
+     * @param out   the sink to append to
+     * @param cents the amount in cents
+     * @throws IOException if the sink fails
+     */
+    public void appendTo(Appendable out, long cents) throws IOException {
+        // work on the magnitude split into units and cents; neither part can overflow, even for Long.MIN_VALUE
+        long units = Money.units(cents);
+        int fraction = Money.cents(cents);
+        final boolean negative = cents < 0;
+        if (negative) {
+            units = -units;
+            fraction = -fraction;
+            out.append(negativePrefix);
+        }
+        else {
+            out.append(positivePrefix);
+        }
+        if (fractionDigits == 0) {
+            appendUnits(out, units + roundUp(units, fraction, RADIX * RADIX));
+        }
+        else if (fractionDigits == 1) {
+            int tenths = fraction / RADIX + roundUp(fraction / RADIX, fraction % RADIX, RADIX);
+            if (tenths == RADIX) {
+                units++;
+                tenths = 0;
+            }
+            appendUnits(out, units);
+            out.append(decimalSeparator).append((char) ('0' + tenths));
+        }
+        else {
+            appendUnits(out, units);
+            out.append(decimalSeparator)
+                    .append((char) ('0' + fraction / RADIX))
+                    .append((char) ('0' + fraction % RADIX));
+            for (int i = CENT_DIGITS; i < fractionDigits; i++) {
+                out.append('0');
+            }
+        }
+        if (negative) {
+            out.append(negativeSuffix);
+        }
+        else {
+            out.append(positiveSuffix);
+        }
+    }
+
+    /**
+     * Return 1 if {@code kept} must be rounded up half-even for a dropped remainder out of {@code scale}.
+     */
+    private static int roundUp(long kept, int dropped, int scale) {
+        final int twice = dropped * 2;
+        if (twice > scale || twice == scale && kept % 2 != 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private void appendUnits(Appendable out, long units) throws IOException {
+        int digits = 1;
+        long divisor = 1;
+        while (divisor < MAX_POWER_OF_TEN && units >= divisor * RADIX) {
+            divisor *= RADIX;
+            digits++;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + units / divisor % RADIX));
+            digits--;
+            if (groupingSize > 0 && digits > 0 && digits % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+            divisor /= RADIX;
+        }
+    }
+}
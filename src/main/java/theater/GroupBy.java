@@ -0,0 +1,41 @@
+package theater;
+
+/**
+ * The dimension an {@link Aggregate} groups performances by.
+ */
+public enum GroupBy {
+
+    /**
+     * One group per play id.
+     */
+    PLAY_ID,
+
+    /**
+     * One group per play type, such as {@code "tragedy"}.
+     */
+    PLAY_TYPE,
+
+    /**
+     * One group per customer.
+     */
+    CUSTOMER;
+
+    /**
+     * Return the group a performance belongs to.
+     *
+     * @param customer the customer of the invoice the performance is on
+     * @param playID   the id of the play that was performed
+     * @param playType the type of the play that was performed
+     * @return the group key
+     */
+    String keyOf(String customer, String playID, String playType) {
+        switch (this) {
+            case PLAY_ID:
+                return playID;
+            case PLAY_TYPE:
+                return playType;
+            default:
+                return customer;
+        }
+    }
+}
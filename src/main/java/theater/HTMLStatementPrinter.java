@@ -0,0 +1,21 @@
+package theater;
+
+import java.util.Map;
+
+/**
+ * This class generates an HTML statement for a given invoice of performances.
+ */
+public class HTMLStatementPrinter extends StatementPrinter {
+
+    private static final StatementRenderer HTML = new HtmlStatementRenderer();
+
+    /**
+     * Create an HTML statement printer for the given invoice and plays.
+     *
+     * @param invoice the invoice to print
+     * @param plays   the plays for the performances in the invoice
+     */
+    public HTMLStatementPrinter(Invoice invoice, Map<String, Play> plays) {
+        super(invoice, plays, HTML);
+    }
+}
@@ -0,0 +1,22 @@
+package theater;
+
+/**
+ * Pricing rules for histories.
+ */
+public final class HistoryCalculator implements PerformanceCalculator {
+
+    @Override
+    public long amountFor(int audience) {
+        long result = Constants.HISTORY_BASE_AMOUNT;
+        if (audience > Constants.HISTORY_AUDIENCE_THRESHOLD) {
+            result += (long) Constants.HISTORY_OVER_BASE_CAPACITY_PER_PERSON
+                    * (audience - Constants.HISTORY_AUDIENCE_THRESHOLD);
+        }
+        return result;
+    }
+
+    @Override
+    public int volumeCredits(int audience) {
+        return Math.max(audience - Constants.HISTORY_VOLUME_CREDIT_THRESHOLD, 0);
+    }
+}
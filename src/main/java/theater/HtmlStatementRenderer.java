@@ -0,0 +1,63 @@
+package theater;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Renders statements as an HTML fragment with a table of performances.
+ */
+public final class HtmlStatementRenderer implements StatementRenderer {
+
+    private final CurrencyFormatter currency;
+    private final String lineSeparator = System.lineSeparator();
+
+    /**
+     * Create an HTML renderer showing amounts in US dollars.
+     */
+    public HtmlStatementRenderer() {
+        this(CurrencyFormatter.forLocale(Locale.US));
+    }
+
+    /**
+     * Create an HTML renderer with the given currency format.
+     *
+     * @param currency the format for amounts
+     */
+    public HtmlStatementRenderer(CurrencyFormatter currency) {
+        this.currency = currency;
+    }
+
+    @Override
+    public void header(Appendable out, String customer) throws IOException {
+        out.append("<h1>Statement for ");
+        Appendables.appendHtml(out, customer);
+        out.append("</h1>").append(lineSeparator);
+        out.append("<table>").append(lineSeparator);
+        out.append(" <caption>Statement for ");
+        Appendables.appendHtml(out, customer);
+        out.append("</caption>").append(lineSeparator);
+        out.append(" <tr><th>play</th><th>seats</th><th>cost</th></tr>").append(lineSeparator);
+    }
+
+    @Override
+    public void line(Appendable out, String playName, int audience, long amount) throws IOException {
+        out.append(" <tr><td>");
+        Appendables.appendHtml(out, playName);
+        out.append("</td><td>");
+        Appendables.appendInt(out, audience);
+        out.append("</td><td>");
+        currency.appendTo(out, amount);
+        out.append("</td></tr>").append(lineSeparator);
+    }
+
+    @Override
+    public void footer(Appendable out, long totalAmount, long volumeCredits) throws IOException {
+        out.append("</table>").append(lineSeparator);
+        out.append("<p>Amount owed is <em>");
+        currency.appendTo(out, totalAmount);
+        out.append("</em></p>").append(lineSeparator);
+        out.append("<p>You earned <em>");
+        Appendables.appendInt(out, volumeCredits);
+        out.append("</em> credits</p>").append(lineSeparator);
+    }
+}
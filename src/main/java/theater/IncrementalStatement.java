@@ -0,0 +1,239 @@
+package theater;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A statement for an open invoice that is kept up to date as performances are added, amended or removed.
+ *
+ * <p>Each change prices only the performance it touches and adjusts the running totals, and the rendered
+ * text of every unchanged line is reused, so the statement never has to be rebuilt from scratch. Each
+ * performance is identified by the handle returned when it was added. Results are identical to building
+ * a new {@link StatementPrinter} for {@link #getInvoice()}. Instances are not thread-safe.</p>
+ */
+public class IncrementalStatement {
+
+    private final String customer;
+    private final Map<String, Play> plays;
+    private final StatementRenderer renderer;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+
+    private long nextHandle;
+    private long totalAmount;
+    private long volumeCredits;
+
+    /**
+     * Create an empty plain-text statement for a customer.
+     *
+     * @param customer the customer the statement is for
+     * @param plays    the plays for the performances that will be added
+     */
+    public IncrementalStatement(String customer, Map<String, Play> plays) {
+        this(customer, plays, new PlainTextStatementRenderer());
+    }
+
+    /**
+     * Create an empty statement for a customer in the given output format.
+     *
+     * @param customer the customer the statement is for
+     * @param plays    the plays for the performances that will be added
+     * @param renderer the output format
+     */
+    public IncrementalStatement(String customer, Map<String, Play> plays, StatementRenderer renderer) {
+        this.customer = customer;
+        this.plays = plays;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Create a statement holding all performances of an invoice.
+     *
+     * @param invoice the invoice
+     * @param plays   the plays for the performances in the invoice
+     * @return the statement
+     */
+    public static IncrementalStatement of(Invoice invoice, Map<String, Play> plays) {
+        final IncrementalStatement result = new IncrementalStatement(invoice.getCustomer(), plays);
+        for (Performance performance : invoice.getPerformances()) {
+            result.add(performance);
+        }
+        return result;
+    }
+
+    /**
+     * Add a performance at the end of the statement.
+     *
+     * @param performance the performance to add
+     * @return the handle identifying the performance in later updates
+     * @throws IllegalArgumentException if the play is unknown or its type cannot be priced
+     * @throws ArithmeticException if the new total does not fit in a {@code long}; the statement is unchanged
+     */
+    public long add(Performance performance) {
+        final Line line = price(performance);
+        // compute the new total first so an overflow leaves the statement unchanged
+        final long amount = Money.add(totalAmount, line.amount);
+        final long credits = Math.addExact(volumeCredits, line.credits);
+        final long handle = nextHandle++;
+        lines.put(handle, line);
+        totalAmount = amount;
+        volumeCredits = credits;
+        return handle;
+    }
+
+    /**
+     * Replace a performance, keeping its position in the statement.
+     *
+     * @param handle      the handle returned when the performance was added
+     * @param performance the amended performance
+     * @throws IllegalArgumentException if the handle is unknown, or the play is unknown or cannot be priced
+     * @throws ArithmeticException if the new total does not fit in a {@code long}; the statement is unchanged
+     */
+    public void update(long handle, Performance performance) {
+        final Line old = existing(handle);
+        final Line line = price(performance);
+        final long amount = Money.add(Money.add(totalAmount, -old.amount), line.amount);
+        final long credits = Math.addExact(volumeCredits - old.credits, line.credits);
+        lines.put(handle, line);
+        totalAmount = amount;
+        volumeCredits = credits;
+    }
+
+    /**
+     * Remove a performance.
+     *
+     * @param handle the handle returned when the performance was added
+     * @throws IllegalArgumentException if the handle is unknown
+     */
+    public void remove(long handle) {
+        final Line old = existing(handle);
+        final long amount = Money.add(totalAmount, -old.amount);
+        lines.remove(handle);
+        totalAmount = amount;
+        volumeCredits -= old.credits;
+    }
+
+    /**
+     * Get the customer name for this statement.
+     *
+     * @return the customer name
+     */
+    public String getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Return the number of performances.
+     *
+     * @return the number of performances
+     */
+    public int size() {
+        return lines.size();
+    }
+
+    /**
+     * Get total amount for all performances.
+     *
+     * @return the total amount in cents
+     */
+    public long totalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * Get total volume credits for all performances.
+     *
+     * @return the total volume credits
+     */
+    public long volumeCredits() {
+        return volumeCredits;
+    }
+
+    /**
+     * Return an invoice with the current performances, in statement order.
+     *
+     * @return a new invoice
+     */
+    public Invoice getInvoice() {
+        final List<Performance> performances = new ArrayList<>(lines.size());
+        for (Line line : lines.values()) {
+            performances.add(line.performance);
+        }
+        return new Invoice(customer, performances);
+    }
+
+    /**
+     * Write the statement, rendering only the lines that changed since the last render.
+     *
+     * @param out the sink to write to
+     * @throws IOException if the sink fails
+     */
+    public void render(Appendable out) throws IOException {
+        renderer.header(out, customer);
+        for (Line line : lines.values()) {
+            if (line.rendered == null) {
+                final StringBuilder text = new StringBuilder();
+                renderer.line(text, line.name, line.performance.getAudience(), line.amount);
+                line.rendered = text.toString();
+            }
+            out.append(line.rendered);
+        }
+        renderer.footer(out, totalAmount, volumeCredits);
+    }
+
+    /**
+     * Render the statement as a string.
+     *
+     * @return the rendered statement
+     */
+    public String statement() {
+        final StringBuilder result = new StringBuilder();
+        try {
+            render(result);
+        }
+        catch (IOException exception) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(exception);
+        }
+        return result.toString();
+    }
+
+    private Line existing(long handle) {
+        final Line result = lines.get(handle);
+        if (result == null) {
+            throw new IllegalArgumentException(String.format("unknown performance handle: %d", handle));
+        }
+        return result;
+    }
+
+    private Line price(Performance performance) {
+        final Play play = plays.get(performance.getPlayID());
+        if (play == null) {
+            throw new IllegalArgumentException(String.format("unknown play: %s", performance.getPlayID()));
+        }
+        final PerformanceData performanceData = new PerformanceData(performance, play);
+        return new Line(performance, play.getName(), performanceData.amountFor(), performanceData.volumeCredits());
+    }
+
+    /**
+     * One priced performance and its cached rendering.
+     */
+    private static final class Line {
+
+        private final Performance performance;
+        private final String name;
+        private final long amount;
+        private final int credits;
+        private String rendered;
+
+        Line(Performance performance, String name, long amount, int credits) {
+            this.performance = performance;
+            this.name = name;
+            this.amount = amount;
+            this.credits = credits;
+        }
+    }
+}
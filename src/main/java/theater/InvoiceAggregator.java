@@ -0,0 +1,166 @@
+package theater;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Answers revenue and volume-credit queries over batches of invoices without rendering any statements.
+ *
+ * <p>In-memory batches and {@link InvoiceSnapshot}s are split into chunks that are aggregated in
+ * parallel on the configured executor and whose partial {@link Aggregate}s are then merged. Invoice
+ * streams are aggregated in a single pass as they are parsed, so inputs larger than the heap only
+ * ever hold one running total per group. Every performance is priced with
+ * {@link PerformanceData#amountFor()} and {@link PerformanceData#volumeCredits()}, so the figures
+ * match the statements exactly.</p>
+ */
+public class InvoiceAggregator {
+
+    private final Map<String, Play> plays;
+    private final Executor executor;
+    private final int chunkSize;
+
+    /**
+     * Create an aggregator running on the common fork-join pool.
+     *
+     * @param plays the plays shared by all invoices; must not be modified while a query runs
+     */
+    public InvoiceAggregator(Map<String, Play> plays) {
+        this(plays, ForkJoinPool.commonPool(), BatchStatementPrinter.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create an aggregator running on the given executor.
+     *
+     * @param plays     the plays shared by all invoices; must not be modified while a query runs
+     * @param executor  the executor the aggregation tasks are submitted to
+     * @param chunkSize the number of invoices aggregated by each task
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public InvoiceAggregator(Map<String, Play> plays, Executor executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(String.format("chunk size must be positive: %d", chunkSize));
+        }
+        this.plays = plays;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Aggregate a batch of invoices in parallel.
+     *
+     * @param invoices the invoices
+     * @param groupBy  the dimension to group by
+     * @return the aggregate over all invoices
+     * @throws IllegalArgumentException if an invoice uses an unknown play or a play type that cannot be priced
+     */
+    public Aggregate aggregate(Collection<Invoice> invoices, GroupBy groupBy) {
+        final Invoice[] input = invoices.toArray(new Invoice[0]);
+        return aggregateChunks(input.length, groupBy, (partial, from, to) -> {
+            for (int i = from; i < to; i++) {
+                partial.add(input[i], plays);
+            }
+        });
+    }
+
+    /**
+     * Aggregate every invoice of a snapshot in parallel, reading the invoices straight from the mapped file.
+     *
+     * @param snapshot the snapshot
+     * @param groupBy  the dimension to group by
+     * @return the aggregate over all invoices
+     * @throws IllegalArgumentException if an invoice uses an unknown play or a play type that cannot be priced
+     */
+    public Aggregate aggregate(InvoiceSnapshot snapshot, GroupBy groupBy) {
+        return aggregateChunks(snapshot.size(), groupBy, (partial, from, to) -> {
+            for (int i = from; i < to; i++) {
+                final String customer = snapshot.getCustomer(i);
+                final int count = snapshot.getPerformanceCount(i);
+                for (int j = 0; j < count; j++) {
+                    final String playID = snapshot.getPlayID(i, j);
+                    final Performance performance = new Performance(playID, snapshot.getAudience(i, j));
+                    partial.add(customer, playID, new PerformanceData(performance, Aggregate.playFor(plays, playID)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Aggregate a stream of invoices in the {@code invoices.json} format in a single pass.
+     *
+     * @param in      the JSON array of invoices to read
+     * @param groupBy the dimension to group by
+     * @return the aggregate over all invoices
+     * @throws IOException if reading the input fails
+     * @throws IllegalArgumentException if the input is malformed, or an invoice uses an unknown play or a
+     *                                  play type that cannot be priced
+     */
+    public Aggregate aggregate(Reader in, GroupBy groupBy) throws IOException {
+        final Aggregate result = new Aggregate(groupBy);
+        new InvoiceStreamReader(in).readAll(new InvoiceHandler() {
+            private String customer;
+
+            @Override
+            public void startInvoice(String name) {
+                customer = name;
+            }
+
+            @Override
+            public void performance(String playID, int audience) {
+                result.add(customer, playID,
+                        new PerformanceData(new Performance(playID, audience), Aggregate.playFor(plays, playID)));
+            }
+
+            @Override
+            public void endInvoice() {
+                customer = null;
+            }
+        });
+        return result;
+    }
+
+    private Aggregate aggregateChunks(int size, GroupBy groupBy, Chunk chunk) {
+        final List<CompletableFuture<Aggregate>> tasks = new ArrayList<>();
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, size);
+            tasks.add(CompletableFuture.supplyAsync(() -> {
+                final Aggregate partial = new Aggregate(groupBy);
+                chunk.addTo(partial, from, to);
+                return partial;
+            }, executor));
+        }
+        final Aggregate result = new Aggregate(groupBy);
+        for (CompletableFuture<Aggregate> task : tasks) {
+            result.merge(joinUnwrapped(task));
+        }
+        return result;
+    }
+
+    private static Aggregate joinUnwrapped(CompletableFuture<Aggregate> task) {
+        try {
+            return task.join();
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Adds a range of invoices to a partial aggregate.
+     */
+    private interface Chunk {
+
+        void addTo(Aggregate partial, int from, int to);
+    }
+}
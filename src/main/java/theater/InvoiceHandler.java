@@ -0,0 +1,33 @@
+package theater;
+
+import java.io.IOException;
+
+/**
+ * Receives the contents of invoices one record at a time as they are read from a stream.
+ */
+public interface InvoiceHandler {
+
+    /**
+     * Called when a new invoice begins.
+     *
+     * @param customer the customer the invoice is for
+     * @throws IOException if the handler cannot write its output
+     */
+    void startInvoice(String customer) throws IOException;
+
+    /**
+     * Called for each performance of the current invoice, in order.
+     *
+     * @param playID   the id of the play that was performed
+     * @param audience the audience size
+     * @throws IOException if the handler cannot write its output
+     */
+    void performance(String playID, int audience) throws IOException;
+
+    /**
+     * Called once all performances of the current invoice have been delivered.
+     *
+     * @throws IOException if the handler cannot write its output
+     */
+    void endInvoice() throws IOException;
+}
@@ -0,0 +1,125 @@
+package theater;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A memory-mapped, read-only batch of invoices written by {@link InvoiceSnapshotWriter}.
+ *
+ * <p>Opening a snapshot only maps the file and decodes the small table of play ids. Customers and
+ * performances are read straight from the mapped file when accessed, so loading takes the same time
+ * however large the archive is. Instances are immutable and safe to share between threads.</p>
+ */
+public final class InvoiceSnapshot {
+
+    static final int MAGIC = 0x54484956;
+
+    private static final int PERFORMANCE_SIZE = Integer.BYTES * 2;
+
+    private final SnapshotFile.Input in;
+    private final String[] playIDs;
+
+    private InvoiceSnapshot(SnapshotFile.Input in) {
+        this.in = in;
+        long position = in.getTrailerOffset();
+        this.playIDs = new String[in.getInt(position)];
+        position += Integer.BYTES;
+        for (int i = 0; i < playIDs.length; i++) {
+            playIDs[i] = in.getString(position);
+            position = in.skipString(position);
+        }
+    }
+
+    /**
+     * Map a snapshot file.
+     *
+     * @param path the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the file is not an invoice snapshot
+     */
+    public static InvoiceSnapshot open(Path path) throws IOException {
+        return new InvoiceSnapshot(new SnapshotFile.Input(path, MAGIC));
+    }
+
+    /**
+     * Return the number of invoices.
+     *
+     * @return the number of invoices
+     */
+    public int size() {
+        return in.getUnitCount();
+    }
+
+    /**
+     * Return the customer of an invoice.
+     *
+     * @param invoice the invoice number
+     * @return the customer name
+     */
+    public String getCustomer(int invoice) {
+        return in.getString(in.unitOffset(invoice));
+    }
+
+    /**
+     * Return the number of performances in an invoice.
+     *
+     * @param invoice the invoice number
+     * @return the number of performances
+     */
+    public int getPerformanceCount(int invoice) {
+        return in.getInt(in.skipString(in.unitOffset(invoice)));
+    }
+
+    /**
+     * Return the audience of one performance.
+     *
+     * @param invoice     the invoice number
+     * @param performance the performance number within the invoice
+     * @return the audience size
+     */
+    public int getAudience(int invoice, int performance) {
+        return in.getInt(performanceOffset(invoice, performance) + Integer.BYTES);
+    }
+
+    /**
+     * Return the play id of one performance.
+     *
+     * @param invoice     the invoice number
+     * @param performance the performance number within the invoice
+     * @return the play id
+     */
+    public String getPlayID(int invoice, int performance) {
+        return playIDs[in.getInt(performanceOffset(invoice, performance))];
+    }
+
+    /**
+     * Decode one invoice into objects.
+     *
+     * @param invoice the invoice number
+     * @return the invoice
+     */
+    public Invoice getInvoice(int invoice) {
+        final long start = in.unitOffset(invoice);
+        long position = in.skipString(start);
+        final int count = in.getInt(position);
+        position += Integer.BYTES;
+        final List<Performance> performances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            performances.add(new Performance(playIDs[in.getInt(position)], in.getInt(position + Integer.BYTES)));
+            position += PERFORMANCE_SIZE;
+        }
+        return new Invoice(in.getString(start), performances);
+    }
+
+    private long performanceOffset(int invoice, int performance) {
+        final long countOffset = in.skipString(in.unitOffset(invoice));
+        final int count = in.getInt(countOffset);
+        if (performance < 0 || performance >= count) {
+            throw new IndexOutOfBoundsException(String.format("performance %d of %d", performance, count));
+        }
+        return countOffset + Integer.BYTES + (long) performance * PERFORMANCE_SIZE;
+    }
+}
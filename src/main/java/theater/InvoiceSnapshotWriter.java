@@ -0,0 +1,93 @@
+package theater;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a batch of invoices to a binary snapshot that {@link InvoiceSnapshot} can memory-map.
+ *
+ * <p>Each invoice is one unit: the customer as a length-prefixed UTF-8 string, the number of
+ * performances, then an (play index, audience) pair of ints per performance. Play ids are interned
+ * while writing and stored once, in the trailer unit, as a count followed by the id strings.</p>
+ */
+public final class InvoiceSnapshotWriter implements Closeable {
+
+    private static final int PERFORMANCE_SIZE = Integer.BYTES * 2;
+
+    private final SnapshotFile.Output out;
+    private final Map<String, Integer> playIndexes = new HashMap<>();
+    private final List<byte[]> playIDs = new ArrayList<>();
+
+    /**
+     * Create a snapshot file, replacing any existing file.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be created
+     */
+    public InvoiceSnapshotWriter(Path path) throws IOException {
+        this(path, SnapshotFile.DEFAULT_SEGMENT_SIZE);
+    }
+
+    InvoiceSnapshotWriter(Path path, int segmentSize) throws IOException {
+        this.out = new SnapshotFile.Output(path, InvoiceSnapshot.MAGIC, segmentSize);
+    }
+
+    /**
+     * Append an invoice to the snapshot.
+     *
+     * @param invoice the invoice to write
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the invoice is too large for one snapshot segment
+     */
+    public void write(Invoice invoice) throws IOException {
+        final byte[] customer = invoice.getCustomer().getBytes(StandardCharsets.UTF_8);
+        final List<Performance> performances = invoice.getPerformances();
+        out.beginUnit(SnapshotFile.stringSize(customer) + Integer.BYTES
+                + (long) performances.size() * PERFORMANCE_SIZE);
+        out.putString(customer);
+        out.putInt(performances.size());
+        for (Performance performance : performances) {
+            out.putInt(intern(performance.getPlayID()));
+            out.putInt(performance.getAudience());
+        }
+    }
+
+    private int intern(String playID) {
+        Integer result = playIndexes.get(playID);
+        if (result == null) {
+            result = playIDs.size();
+            playIndexes.put(playID, result);
+            playIDs.add(playID.getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * Write the play id table and index, then close the file.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long size = Integer.BYTES;
+            for (byte[] playID : playIDs) {
+                size += SnapshotFile.stringSize(playID);
+            }
+            out.beginTrailer(size);
+            out.putInt(playIDs.size());
+            for (byte[] playID : playIDs) {
+                out.putString(playID);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+}
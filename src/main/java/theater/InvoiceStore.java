@@ -0,0 +1,436 @@
+package theater;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A compact, read-only store of many invoices kept in memory for re-rendering on demand.
+ *
+ * <p>Instead of one {@link Invoice}, one list and one {@link Performance} per line, each with its own
+ * customer and play id strings, the store keeps every distinct customer name once, refers to plays by
+ * their {@link PlayCatalog} handle, and packs all performances into a single buffer of {@code int}
+ * pairs, either on the heap or in a direct buffer outside it. Customers are indexed by an
+ * open-addressing hash table of {@code int}s, so finding a customer's invoices takes constant time
+ * without a boxed map entry per customer.</p>
+ *
+ * <p>Invoices are turned back into a {@link Statement} or a {@link ColumnarInvoice} when needed; the
+ * play handles were resolved when the invoice was added and are not looked up again. A statement
+ * takes its totals from the columnar form and only creates {@link Performance} objects if its lines
+ * are built. Instances are immutable and safe to share between threads.</p>
+ */
+public final class InvoiceStore {
+
+    private static final int[] NO_INVOICES = new int[0];
+    private static final int PERFORMANCE_INTS = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private static final int MAX_PERFORMANCES = (Integer.MAX_VALUE - Long.BYTES) / PERFORMANCE_INTS;
+
+    private final PlayCatalog catalog;
+    private final String[] customers;
+    private final int[] slots;
+    private final int[] customerOf;
+    private final int[] performanceStart;
+    private final int[] customerStart;
+    private final int[] invoicesByCustomer;
+    private final IntBuffer performances;
+
+    private InvoiceStore(Builder builder, boolean offHeap) {
+        final int invoiceCount = builder.invoiceCount;
+        final int customerCount = builder.customerCount;
+        this.catalog = builder.catalog;
+        this.customers = Arrays.copyOf(builder.customers, customerCount);
+        this.slots = table(customers, customerCount);
+        this.customerOf = Arrays.copyOf(builder.customerOf, invoiceCount);
+        this.performanceStart = Arrays.copyOf(builder.performanceStart, invoiceCount + 1);
+        final int ints = builder.performanceCount * PERFORMANCE_INTS;
+        if (offHeap) {
+            if (builder.performanceCount > Integer.MAX_VALUE / (PERFORMANCE_INTS * Integer.BYTES)) {
+                throw new IllegalArgumentException(String.format(
+                        "too many performances for an off-heap store: %d", builder.performanceCount));
+            }
+            this.performances = ByteBuffer.allocateDirect(ints * Integer.BYTES).order(ByteOrder.nativeOrder())
+                    .asIntBuffer().put(builder.performances, 0, ints);
+        }
+        else {
+            this.performances = IntBuffer.wrap(Arrays.copyOf(builder.performances, ints));
+        }
+        // group the invoice numbers by customer, keeping invoice order within each customer
+        this.customerStart = new int[customerCount + 1];
+        for (int invoice = 0; invoice < invoiceCount; invoice++) {
+            customerStart[customerOf[invoice] + 1]++;
+        }
+        for (int customer = 0; customer < customerCount; customer++) {
+            customerStart[customer + 1] += customerStart[customer];
+        }
+        this.invoicesByCustomer = new int[invoiceCount];
+        final int[] next = Arrays.copyOf(customerStart, customerCount);
+        for (int invoice = 0; invoice < invoiceCount; invoice++) {
+            invoicesByCustomer[next[customerOf[invoice]]++] = invoice;
+        }
+    }
+
+    /**
+     * Create an on-heap store holding the given invoices.
+     *
+     * @param invoices the invoices, in the order they are numbered
+     * @param catalog  the catalog holding the plays of all invoices
+     * @return the store
+     * @throws IllegalArgumentException if an invoice uses plays that are not in the catalog
+     */
+    public static InvoiceStore of(Iterable<Invoice> invoices, PlayCatalog catalog) {
+        final Builder builder = new Builder(catalog);
+        for (Invoice invoice : invoices) {
+            builder.add(invoice);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return the catalog the store's play handles belong to.
+     *
+     * @return the catalog
+     */
+    public PlayCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Return the number of invoices.
+     *
+     * @return the number of invoices
+     */
+    public int size() {
+        return customerOf.length;
+    }
+
+    /**
+     * Return the number of distinct customers.
+     *
+     * @return the number of customers
+     */
+    public int getCustomerCount() {
+        return customers.length;
+    }
+
+    /**
+     * Return whether the performances are held outside the Java heap.
+     *
+     * @return true if the store is off-heap
+     */
+    public boolean isOffHeap() {
+        return performances.isDirect();
+    }
+
+    /**
+     * Return the customer of an invoice.
+     *
+     * @param invoice the invoice number
+     * @return the customer name
+     */
+    public String getCustomer(int invoice) {
+        return customers[customerOf[invoice]];
+    }
+
+    /**
+     * Return the number of performances in an invoice.
+     *
+     * @param invoice the invoice number
+     * @return the number of performances
+     */
+    public int getPerformanceCount(int invoice) {
+        return performanceStart[invoice + 1] - performanceStart[invoice];
+    }
+
+    /**
+     * Return the audience of one performance.
+     *
+     * @param invoice     the invoice number
+     * @param performance the performance number within the invoice
+     * @return the audience size
+     */
+    public int getAudience(int invoice, int performance) {
+        return performances.get(performanceIndex(invoice, performance) + 1);
+    }
+
+    /**
+     * Return the play id of one performance.
+     *
+     * @param invoice     the invoice number
+     * @param performance the performance number within the invoice
+     * @return the play id
+     */
+    public String getPlayID(int invoice, int performance) {
+        return catalog.getPlayID(performances.get(performanceIndex(invoice, performance)));
+    }
+
+    /**
+     * Return the numbers of all invoices of a customer.
+     *
+     * @param customer the customer name
+     * @return the invoice numbers in the order they were added, or an empty array if there are none
+     */
+    public int[] invoicesOf(String customer) {
+        final int index = find(customers, slots, customer);
+        if (index < 0) {
+            return NO_INVOICES;
+        }
+        return Arrays.copyOfRange(invoicesByCustomer, customerStart[index], customerStart[index + 1]);
+    }
+
+    /**
+     * Decode one invoice into objects. Play ids are the catalog's instances and are not copied.
+     *
+     * @param invoice the invoice number
+     * @return the invoice
+     */
+    public Invoice getInvoice(int invoice) {
+        final int count = getPerformanceCount(invoice);
+        final List<Performance> result = new ArrayList<>(count);
+        int position = performanceStart[invoice] * PERFORMANCE_INTS;
+        for (int i = 0; i < count; i++) {
+            result.add(new Performance(catalog.getPlayID(performances.get(position)),
+                    performances.get(position + 1)));
+            position += PERFORMANCE_INTS;
+        }
+        return new Invoice(getCustomer(invoice), result);
+    }
+
+    /**
+     * Create the statement for one invoice without resolving its plays again. The totals are computed
+     * from the packed columns; the invoice's performances are created only when they are read.
+     *
+     * @param invoice the invoice number
+     * @return the statement
+     */
+    public Statement statement(int invoice) {
+        final int count = getPerformanceCount(invoice);
+        final int[] audiences = new int[count];
+        final int[] handles = new int[count];
+        unpack(invoice, audiences, handles);
+        final String customer = getCustomer(invoice);
+        return new Statement(new Invoice(customer, new PerformanceView(catalog, audiences, handles)),
+                catalog, handles, catalog.bind(customer, audiences, handles));
+    }
+
+    /**
+     * Return one invoice in columnar form, for computing totals or rendering without per-line objects.
+     *
+     * @param invoice the invoice number
+     * @return the columnar invoice
+     */
+    public ColumnarInvoice columnar(int invoice) {
+        final int count = getPerformanceCount(invoice);
+        final int[] audiences = new int[count];
+        final int[] handles = new int[count];
+        unpack(invoice, audiences, handles);
+        return catalog.bind(getCustomer(invoice), audiences, handles);
+    }
+
+    private void unpack(int invoice, int[] audiences, int[] handles) {
+        int position = performanceStart[invoice] * PERFORMANCE_INTS;
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = performances.get(position);
+            audiences[i] = performances.get(position + 1);
+            position += PERFORMANCE_INTS;
+        }
+    }
+
+    /**
+     * Return the statements of all invoices in invoice order, each created when the iterator reaches it.
+     *
+     * @return the statements
+     */
+    public Iterable<Statement> statements() {
+        return () -> new Iterator<Statement>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public Statement next() {
+                if (next >= size()) {
+                    throw new NoSuchElementException();
+                }
+                return statement(next++);
+            }
+        };
+    }
+
+    private int performanceIndex(int invoice, int performance) {
+        final int count = getPerformanceCount(invoice);
+        if (performance < 0 || performance >= count) {
+            throw new IndexOutOfBoundsException(String.format("performance %d of %d", performance, count));
+        }
+        return (performanceStart[invoice] + performance) * PERFORMANCE_INTS;
+    }
+
+    private static int slotOf(String customer, int mask) {
+        final int hash = customer.hashCode() * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> Short.SIZE)) & mask;
+    }
+
+    /**
+     * Build a customer table with room for twice the number of customers.
+     */
+    private static int[] table(String[] customers, int count) {
+        final int[] result = new int[Math.max(Integer.highestOneBit(Math.max(count, 1)) * 4, 2)];
+        for (int i = 0; i < count; i++) {
+            insert(result, customers[i], i);
+        }
+        return result;
+    }
+
+    private static void insert(int[] table, String customer, int index) {
+        final int mask = table.length - 1;
+        int slot = slotOf(customer, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Look a customer up in an open-addressing table whose slots hold customer index plus one.
+     */
+    private static int find(String[] customers, int[] slots, String customer) {
+        final int mask = slots.length - 1;
+        for (int slot = slotOf(customer, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (customers[slots[slot] - 1].equals(customer)) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An unmodifiable list of the performances of one stored invoice, each created when it is read.
+     */
+    private static final class PerformanceView extends AbstractList<Performance> implements RandomAccess {
+
+        private final PlayCatalog catalog;
+        private final int[] audiences;
+        private final int[] handles;
+
+        PerformanceView(PlayCatalog catalog, int[] audiences, int[] handles) {
+            this.catalog = catalog;
+            this.audiences = audiences;
+            this.handles = handles;
+        }
+
+        @Override
+        public Performance get(int index) {
+            return new Performance(catalog.getPlayID(handles[index]), audiences[index]);
+        }
+
+        @Override
+        public int size() {
+            return handles.length;
+        }
+    }
+
+    /**
+     * Collects invoices for an {@link InvoiceStore}. Instances are not thread-safe.
+     */
+    public static final class Builder {
+
+        private final PlayCatalog catalog;
+        private String[] customers = new String[INITIAL_CAPACITY];
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+        private int customerCount;
+        private int[] customerOf = new int[INITIAL_CAPACITY];
+        private int[] performanceStart = new int[INITIAL_CAPACITY + 1];
+        private int invoiceCount;
+        private int[] performances = new int[INITIAL_CAPACITY * PERFORMANCE_INTS];
+        private int performanceCount;
+
+        /**
+         * Create an empty builder.
+         *
+         * @param catalog the catalog holding the plays of all invoices that will be added
+         */
+        public Builder(PlayCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        /**
+         * Add an invoice, numbered after those added before it.
+         *
+         * @param invoice the invoice
+         * @return this builder
+         * @throws IllegalArgumentException if the invoice uses plays that are not in the catalog
+         */
+        public Builder add(Invoice invoice) {
+            final int[] handles = catalog.resolve(invoice);
+            if ((long) performanceCount + handles.length > MAX_PERFORMANCES) {
+                throw new IllegalArgumentException(String.format(
+                        "too many performances for an invoice store: %d", performanceCount + handles.length));
+            }
+            if (invoiceCount == customerOf.length) {
+                customerOf = Arrays.copyOf(customerOf, invoiceCount * 2);
+                performanceStart = Arrays.copyOf(performanceStart, invoiceCount * 2 + 1);
+            }
+            final int needed = (performanceCount + handles.length) * PERFORMANCE_INTS;
+            if (needed > performances.length) {
+                performances = Arrays.copyOf(performances, (int) Math.min(
+                        Math.max((long) performances.length * 2, needed), (long) MAX_PERFORMANCES * PERFORMANCE_INTS));
+            }
+            int position = performanceCount * PERFORMANCE_INTS;
+            for (int i = 0; i < handles.length; i++) {
+                performances[position] = handles[i];
+                performances[position + 1] = invoice.getPerformances().get(i).getAudience();
+                position += PERFORMANCE_INTS;
+            }
+            customerOf[invoiceCount] = intern(invoice.getCustomer());
+            performanceCount += handles.length;
+            performanceStart[++invoiceCount] = performanceCount;
+            return this;
+        }
+
+        /**
+         * Create an on-heap store of the invoices added so far.
+         *
+         * @return the store
+         */
+        public InvoiceStore build() {
+            return build(false);
+        }
+
+        /**
+         * Create a store of the invoices added so far.
+         *
+         * @param offHeap whether to hold the performances in a direct buffer outside the Java heap
+         * @return the store
+         * @throws IllegalArgumentException if the performances do not fit in one direct buffer
+         */
+        public InvoiceStore build(boolean offHeap) {
+            return new InvoiceStore(this, offHeap);
+        }
+
+        private int intern(String customer) {
+            final int existing = find(customers, slots, customer);
+            if (existing >= 0) {
+                return existing;
+            }
+            if (customerCount == customers.length) {
+                customers = Arrays.copyOf(customers, customerCount * 2);
+                slots = table(customers, customerCount);
+            }
+            customers[customerCount] = customer;
+            insert(slots, customer, customerCount);
+            return customerCount++;
+        }
+
+    }
+}
@@ -0,0 +1,110 @@
+package theater;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads invoices in the {@code invoices.json} format one record at a time and hands them to an
+ * {@link InvoiceHandler}, so that no invoice or performance list is ever held in memory as a whole.
+ */
+public final class InvoiceStreamReader {
+
+    private static final String CUSTOMER = "customer";
+    private static final String PERFORMANCES = "performances";
+    private static final String PLAY_ID = "playID";
+    private static final String AUDIENCE = "audience";
+
+    private final JsonReader json;
+
+    /**
+     * Create a stream reader over the given character stream.
+     *
+     * @param in the JSON array of invoices to read
+     */
+    public InvoiceStreamReader(Reader in) {
+        this.json = new JsonReader(in);
+    }
+
+    /**
+     * Read every invoice in the stream, passing each one to the handler as it is parsed.
+     *
+     * @param handler the handler receiving the invoices
+     * @throws IOException if reading the input or writing through the handler fails
+     * @throws IllegalArgumentException if the input is not a well-formed invoice array
+     */
+    public void readAll(InvoiceHandler handler) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            readInvoice(handler);
+        }
+        json.endArray();
+    }
+
+    private void readInvoice(InvoiceHandler handler) throws IOException {
+        String customer = null;
+        // only used when "performances" precedes "customer" in the input
+        List<Performance> pending = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            final String name = json.nextName();
+            if (CUSTOMER.equals(name)) {
+                customer = json.nextString();
+                handler.startInvoice(customer);
+                if (pending != null) {
+                    for (Performance performance : pending) {
+                        handler.performance(performance.getPlayID(), performance.getAudience());
+                    }
+                    pending = null;
+                }
+            }
+            else if (PERFORMANCES.equals(name)) {
+                if (customer == null) {
+                    pending = new ArrayList<>();
+                }
+                readPerformances(handler, pending);
+            }
+            else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        if (customer == null) {
+            throw json.syntaxError("invoice has no customer");
+        }
+        handler.endInvoice();
+    }
+
+    private void readPerformances(InvoiceHandler handler, List<Performance> pending) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            String playID = null;
+            int audience = 0;
+            json.beginObject();
+            while (json.hasNext()) {
+                final String name = json.nextName();
+                if (PLAY_ID.equals(name)) {
+                    playID = json.nextString();
+                }
+                else if (AUDIENCE.equals(name)) {
+                    audience = json.nextInt();
+                }
+                else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            if (playID == null) {
+                throw json.syntaxError("performance has no playID");
+            }
+            if (pending == null) {
+                handler.performance(playID, audience);
+            }
+            else {
+                pending.add(new Performance(playID, audience));
+            }
+        }
+        json.endArray();
+    }
+}
@@ -0,0 +1,226 @@
+package theater;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads play catalogs in the {@code plays.json} format and invoices in the {@code invoices.json} format
+ * straight into {@link Play}, {@link Performance} and {@link Invoice} objects, or into
+ * {@link ColumnarInvoice}s bound to a {@link PlayCatalog}.
+ *
+ * <p>Tokens are pulled from the input one at a time, so no intermediate JSON object tree is built and
+ * peak memory is the loaded objects themselves. Every {@code playID} is checked against the catalog as
+ * soon as it is read, so an invoice referring to an unknown play is rejected while loading rather than
+ * when its statement is first computed. Byte channels are read as UTF-8.</p>
+ */
+public final class JsonLoader {
+
+    private static final String NAME = "name";
+    private static final String TYPE = "type";
+
+    private JsonLoader() {
+
+    }
+
+    /**
+     * Load a play catalog, resolving play types in the default registry.
+     *
+     * @param in the JSON object mapping play ids to plays
+     * @return the plays keyed by play id, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or a play has no name or type
+     */
+    public static Map<String, Play> readPlays(Reader in) throws IOException {
+        return readPlays(in, PlayTypeRegistry.getDefault());
+    }
+
+    /**
+     * Load a play catalog from a UTF-8 byte channel, resolving play types in the default registry.
+     *
+     * @param in the channel holding the JSON object mapping play ids to plays
+     * @return the plays keyed by play id, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or a play has no name or type
+     */
+    public static Map<String, Play> readPlays(ReadableByteChannel in) throws IOException {
+        return readPlays(Channels.newReader(in, StandardCharsets.UTF_8), PlayTypeRegistry.getDefault());
+    }
+
+    /**
+     * Load a play catalog, resolving play types in the given registry.
+     *
+     * @param in       the JSON object mapping play ids to plays
+     * @param registry the registry to resolve play types in
+     * @return the plays keyed by play id, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or a play has no name or type
+     */
+    public static Map<String, Play> readPlays(Reader in, PlayTypeRegistry registry) throws IOException {
+        final JsonReader json = new JsonReader(in);
+        final Map<String, Play> result = new LinkedHashMap<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            final String playID = json.nextName();
+            String name = null;
+            String type = null;
+            json.beginObject();
+            while (json.hasNext()) {
+                final String field = json.nextName();
+                if (NAME.equals(field)) {
+                    name = json.nextString();
+                }
+                else if (TYPE.equals(field)) {
+                    type = json.nextString();
+                }
+                else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            if (name == null || type == null) {
+                throw json.syntaxError(String.format("play %s needs a name and a type", playID));
+            }
+            result.put(playID, new Play(name, type, registry));
+        }
+        json.endObject();
+        return result;
+    }
+
+    /**
+     * Load invoices, checking every play id against a catalog.
+     *
+     * @param in    the JSON array of invoices
+     * @param plays the plays the invoices may refer to
+     * @return the invoices, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or an invoice refers to an unknown play
+     */
+    public static List<Invoice> readInvoices(Reader in, Map<String, Play> plays) throws IOException {
+        final InvoiceCollector collector = new InvoiceCollector(plays);
+        new InvoiceStreamReader(in).readAll(collector);
+        return collector.invoices;
+    }
+
+    /**
+     * Load invoices and resolve their play ids to the handles of an indexed catalog while reading. The
+     * invoices are returned as immutable columnar invoices bound to the catalog, so pricing or rendering
+     * them never looks a play id up again and no per-line objects are created.
+     *
+     * @param in      the JSON array of invoices
+     * @param catalog the catalog the invoices may refer to
+     * @return the resolved invoices, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or an invoice refers to an unknown play
+     */
+    public static List<ColumnarInvoice> readInvoices(Reader in, PlayCatalog catalog) throws IOException {
+        final ColumnarCollector collector = new ColumnarCollector(catalog);
+        new InvoiceStreamReader(in).readAll(collector);
+        return collector.invoices;
+    }
+
+    /**
+     * Load invoices from a UTF-8 byte channel, checking every play id against a catalog.
+     *
+     * @param in    the channel holding the JSON array of invoices
+     * @param plays the plays the invoices may refer to
+     * @return the invoices, in input order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is malformed or an invoice refers to an unknown play
+     */
+    public static List<Invoice> readInvoices(ReadableByteChannel in, Map<String, Play> plays) throws IOException {
+        return readInvoices(Channels.newReader(in, StandardCharsets.UTF_8), plays);
+    }
+
+    /**
+     * Builds invoices from the records of an invoice stream.
+     */
+    private static final class InvoiceCollector implements InvoiceHandler {
+
+        private final Map<String, Play> plays;
+        private final List<Invoice> invoices = new ArrayList<>();
+        private String customer;
+        private List<Performance> performances;
+
+        InvoiceCollector(Map<String, Play> plays) {
+            this.plays = plays;
+        }
+
+        @Override
+        public void startInvoice(String name) {
+            customer = name;
+            performances = new ArrayList<>();
+        }
+
+        @Override
+        public void performance(String playID, int audience) {
+            if (!plays.containsKey(playID)) {
+                throw unknownPlay(invoices.size(), customer, playID);
+            }
+            performances.add(new Performance(playID, audience));
+        }
+
+        @Override
+        public void endInvoice() {
+            invoices.add(new Invoice(customer, performances));
+        }
+    }
+
+    /**
+     * Builds columnar invoices bound to a catalog from the records of an invoice stream, resolving each
+     * play id to its handle as it is read.
+     */
+    private static final class ColumnarCollector implements InvoiceHandler {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final PlayCatalog catalog;
+        private final List<ColumnarInvoice> invoices = new ArrayList<>();
+        private String customer;
+        private int[] audiences = new int[INITIAL_CAPACITY];
+        private int[] handles = new int[INITIAL_CAPACITY];
+        private int size;
+
+        ColumnarCollector(PlayCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public void startInvoice(String name) {
+            customer = name;
+            size = 0;
+        }
+
+        @Override
+        public void performance(String playID, int audience) {
+            final int handle = catalog.handleOf(playID);
+            if (handle < 0) {
+                throw unknownPlay(invoices.size(), customer, playID);
+            }
+            if (size == handles.length) {
+                audiences = Arrays.copyOf(audiences, size * 2);
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+            audiences[size] = audience;
+            handles[size] = handle;
+            size++;
+        }
+
+        @Override
+        public void endInvoice() {
+            invoices.add(catalog.bind(customer, Arrays.copyOf(audiences, size), Arrays.copyOf(handles, size)));
+        }
+    }
+
+    private static IllegalArgumentException unknownPlay(int invoice, String customer, String playID) {
+        return new IllegalArgumentException(
+                String.format("unknown play in invoice %d for %s: %s", invoice, customer, playID));
+    }
+}
@@ -0,0 +1,409 @@
+package theater;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A minimal pull-style JSON tokenizer that reads values straight from a {@link Reader}
+ * without building an intermediate object tree.
+ */
+final class JsonReader {
+
+    /**
+     * The kinds of token the reader can be positioned at.
+     */
+    enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 256;
+    private static final int HEX_RADIX = 16;
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+    private static final int SCOPE_EMPTY_ARRAY = 1;
+    private static final int SCOPE_NONEMPTY_ARRAY = 2;
+    private static final int SCOPE_EMPTY_OBJECT = 3;
+    private static final int SCOPE_DANGLING_NAME = 4;
+    private static final int SCOPE_NONEMPTY_OBJECT = 5;
+    private static final int SCOPE_DOCUMENT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private final int[] scopes = new int[MAX_DEPTH];
+    private int depth;
+    private Token peeked;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Create a reader over the given character stream.
+     *
+     * @param in the character stream to tokenize
+     */
+    JsonReader(Reader in) {
+        this.in = in;
+        scopes[depth++] = SCOPE_DOCUMENT;
+    }
+
+    /**
+     * Return the type of the next token without consuming it.
+     *
+     * @return the next token
+     * @throws IOException if the underlying reader fails
+     * @throws IllegalArgumentException if the input is not well-formed JSON
+     */
+    Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    /**
+     * Consume the opening bracket of an array.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(SCOPE_EMPTY_ARRAY);
+    }
+
+    /**
+     * Consume the closing bracket of an array.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Consume the opening brace of an object.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(SCOPE_EMPTY_OBJECT);
+    }
+
+    /**
+     * Consume the closing brace of an object.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * Return whether the current array or object has another element.
+     *
+     * @return true if another element follows
+     * @throws IOException if the underlying reader fails
+     */
+    boolean hasNext() throws IOException {
+        final Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consume the next property name.
+     *
+     * @return the property name
+     * @throws IOException if the underlying reader fails
+     */
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        scopes[depth - 1] = SCOPE_DANGLING_NAME;
+        return readString();
+    }
+
+    /**
+     * Consume the next string value.
+     *
+     * @return the string value
+     * @throws IOException if the underlying reader fails
+     */
+    String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    /**
+     * Consume the next number value as an int.
+     *
+     * @return the int value
+     * @throws IOException if the underlying reader fails
+     * @throws IllegalArgumentException if the number is not an integer in int range
+     */
+    int nextInt() throws IOException {
+        expect(Token.NUMBER);
+        final String literal = readLiteral();
+        try {
+            return Integer.parseInt(literal);
+        }
+        catch (NumberFormatException exception) {
+            throw syntaxError(String.format("expected an int but was %s", literal));
+        }
+    }
+
+    /**
+     * Skip the next value, including any nested arrays or objects.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nesting++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nesting++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nesting--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nesting--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    expect(Token.STRING);
+                    readString();
+                    break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    peeked = null;
+                    readLiteral();
+                    break;
+                default:
+                    throw syntaxError("unexpected end of document");
+            }
+        } while (nesting > 0);
+    }
+
+    private void expect(Token expected) throws IOException {
+        final Token actual = peek();
+        if (actual != expected) {
+            throw syntaxError(String.format("expected %s but was %s", expected, actual));
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == MAX_DEPTH) {
+            throw syntaxError("nesting too deep");
+        }
+        scopes[depth++] = scope;
+    }
+
+    private Token doPeek() throws IOException {
+        final int scope = scopes[depth - 1];
+        int c = nextNonWhitespace();
+        switch (scope) {
+            case SCOPE_EMPTY_ARRAY:
+                scopes[depth - 1] = SCOPE_NONEMPTY_ARRAY;
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                break;
+            case SCOPE_NONEMPTY_ARRAY:
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("expected ',' or ']'");
+                }
+                c = nextNonWhitespace();
+                break;
+            case SCOPE_EMPTY_OBJECT:
+            case SCOPE_NONEMPTY_OBJECT:
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (scope == SCOPE_NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("expected a property name");
+                }
+                return Token.NAME;
+            case SCOPE_DANGLING_NAME:
+                if (c != ':') {
+                    throw syntaxError("expected ':'");
+                }
+                scopes[depth - 1] = SCOPE_NONEMPTY_OBJECT;
+                c = nextNonWhitespace();
+                break;
+            default:
+                if (c == -1) {
+                    return Token.END_DOCUMENT;
+                }
+                break;
+        }
+        return valueToken(c);
+    }
+
+    private Token valueToken(int c) {
+        final Token result;
+        switch (c) {
+            case '[':
+                result = Token.BEGIN_ARRAY;
+                break;
+            case '{':
+                result = Token.BEGIN_OBJECT;
+                break;
+            case '"':
+                result = Token.STRING;
+                break;
+            case 't':
+            case 'f':
+                pos--;
+                result = Token.BOOLEAN;
+                break;
+            case 'n':
+                pos--;
+                result = Token.NULL;
+                break;
+            default:
+                if (c == '-' || c >= '0' && c <= '9') {
+                    pos--;
+                    result = Token.NUMBER;
+                }
+                else {
+                    throw syntaxError("expected a value");
+                }
+                break;
+        }
+        return result;
+    }
+
+    private String readString() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            final int c = read();
+            if (c == '"') {
+                return scratch.toString();
+            }
+            if (c == -1) {
+                throw syntaxError("unterminated string");
+            }
+            if (c == '\\') {
+                scratch.append(readEscape());
+            }
+            else {
+                scratch.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        final int c = read();
+        final char result;
+        switch (c) {
+            case 'n':
+                result = '\n';
+                break;
+            case 't':
+                result = '\t';
+                break;
+            case 'r':
+                result = '\r';
+                break;
+            case 'b':
+                result = '\b';
+                break;
+            case 'f':
+                result = '\f';
+                break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < UNICODE_ESCAPE_LENGTH; i++) {
+                    final int digit = Character.digit(read(), HEX_RADIX);
+                    if (digit < 0) {
+                        throw syntaxError("malformed unicode escape");
+                    }
+                    code = code * HEX_RADIX + digit;
+                }
+                result = (char) code;
+                break;
+            case '"':
+            case '\\':
+            case '/':
+                result = (char) c;
+                break;
+            default:
+                throw syntaxError("invalid escape sequence");
+        }
+        return result;
+    }
+
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            final int c = read();
+            if (c == -1) {
+                break;
+            }
+            if (c == ',' || c == ']' || c == '}' || c == ':' || Character.isWhitespace(c)) {
+                pos--;
+                break;
+            }
+            scratch.append((char) c);
+        }
+        return scratch.toString();
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            consumed += limit;
+            pos = 0;
+            limit = in.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Build an exception describing malformed input at the current position.
+     *
+     * @param message what was wrong with the input
+     * @return the exception to throw
+     */
+    IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(
+                String.format("malformed JSON at offset %d: %s", consumed + pos, message));
+    }
+}
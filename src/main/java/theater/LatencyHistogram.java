@@ -0,0 +1,89 @@
+package theater;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power-of-two nanosecond buckets.
+ *
+ * <p>Recording is a few atomic increments, so it can be used on hot paths from many threads.
+ * Percentiles are reported as the upper bound of the bucket they fall in.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = Long.SIZE;
+    private static final double MEDIAN = 0.5;
+    private static final double P99 = 0.99;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Record one measurement.
+     *
+     * @param nanos the measured latency in nanoseconds
+     */
+    public void record(long nanos) {
+        final long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    /**
+     * Return a consistent-enough summary of the measurements so far.
+     *
+     * @return the summary
+     */
+    public LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        final double mean;
+        if (total == 0) {
+            mean = 0;
+        }
+        else {
+            mean = (double) totalNanos.sum() / count.sum();
+        }
+        return new LatencySnapshot(total, mean, percentile(counts, total, MEDIAN), percentile(counts, total, P99),
+                percentile(counts, total, 1));
+    }
+
+    /**
+     * Discard all measurements.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+    }
+
+    private static long percentile(long[] counts, long total, double fraction) {
+        final long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        if (bucket >= Long.SIZE - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,50 @@
+package theater;
+
+/**
+ * A summary of a {@link LatencyHistogram} at one point in time. All latencies are in nanoseconds.
+ */
+public final class LatencySnapshot {
+
+    private final long count;
+    private final double mean;
+    private final long median;
+    private final long p99;
+    private final long max;
+
+    /**
+     * Create a summary.
+     *
+     * @param count  the number of measurements
+     * @param mean   the mean latency
+     * @param median the median latency
+     * @param p99    the 99th percentile latency
+     * @param max    the maximum latency
+     */
+    public LatencySnapshot(long count, double mean, long median, long p99, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.median = median;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,154 @@
+package theater;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A play catalog shared between threads that can be changed while statements are being computed.
+ *
+ * <p>The catalog is a sequence of immutable, numbered {@link Snapshot}s. Reading the current snapshot is
+ * a single volatile read with no locking, so readers are never slowed down by writers. An update copies
+ * the current plays, applies the change and publishes a new snapshot with the next version number;
+ * concurrent updates retry until each one has been applied exactly once. A statement created from a
+ * snapshot resolves all of its plays against that snapshot, so it sees one consistent catalog version
+ * for its whole computation no matter how many updates happen meanwhile.</p>
+ */
+public final class LiveCatalog {
+
+    private final AtomicReference<Snapshot> current;
+
+    /**
+     * Create an empty catalog.
+     */
+    public LiveCatalog() {
+        this(Map.of());
+    }
+
+    /**
+     * Create a catalog holding the given plays as version 0.
+     *
+     * @param plays the plays keyed by play id
+     */
+    public LiveCatalog(Map<String, Play> plays) {
+        this.current = new AtomicReference<>(new Snapshot(0, PlayCatalog.of(new LinkedHashMap<>(plays))));
+    }
+
+    /**
+     * Return the current snapshot of the catalog.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Create a statement for an invoice, pinned to the current snapshot.
+     *
+     * @param invoice the invoice
+     * @return the statement
+     * @throws IllegalArgumentException if the invoice uses plays that are not in the current snapshot
+     */
+    public Statement statement(Invoice invoice) {
+        return new Statement(invoice, current.get().getCatalog());
+    }
+
+    /**
+     * Add a play, or replace the play with the same id.
+     *
+     * @param playID the play id
+     * @param play   the play
+     * @return the snapshot that contains the change
+     */
+    public Snapshot put(String playID, Play play) {
+        return update(plays -> {
+            plays.put(playID, play);
+            return plays;
+        });
+    }
+
+    /**
+     * Add or replace several plays and remove others in a single new version.
+     *
+     * @param additions the plays to add or replace, keyed by play id
+     * @param removals  the ids of the plays to remove
+     * @return the snapshot that contains the changes
+     */
+    public Snapshot update(Map<String, Play> additions, Collection<String> removals) {
+        return update(plays -> {
+            plays.keySet().removeAll(removals);
+            plays.putAll(additions);
+            return plays;
+        });
+    }
+
+    /**
+     * Remove a play. Statements already pinned to an earlier snapshot can still price it.
+     *
+     * @param playID the play id
+     * @return the snapshot that contains the change
+     */
+    public Snapshot remove(String playID) {
+        return update(plays -> {
+            plays.remove(playID);
+            return plays;
+        });
+    }
+
+    /**
+     * Replace the whole catalog.
+     *
+     * @param plays the new plays keyed by play id
+     * @return the snapshot holding the new plays
+     */
+    public Snapshot replace(Map<String, Play> plays) {
+        return update(ignored -> new LinkedHashMap<>(plays));
+    }
+
+    private Snapshot update(UnaryOperator<Map<String, Play>> change) {
+        while (true) {
+            final Snapshot before = current.get();
+            // copy in handle order so the handles of unchanged plays stay the same
+            final Map<String, Play> plays = change.apply(new LinkedHashMap<>(before.getCatalog().asMap()));
+            final Snapshot after = new Snapshot(before.getVersion() + 1, PlayCatalog.of(plays));
+            if (current.compareAndSet(before, after)) {
+                return after;
+            }
+        }
+    }
+
+    /**
+     * One immutable version of the catalog.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final PlayCatalog catalog;
+
+        Snapshot(long version, PlayCatalog catalog) {
+            this.version = version;
+            this.catalog = catalog;
+        }
+
+        /**
+         * Return the version number, which increases by one with every update.
+         *
+         * @return the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Return the plays of this version.
+         *
+         * @return the immutable catalog
+         */
+        public PlayCatalog getCatalog() {
+            return catalog;
+        }
+    }
+}
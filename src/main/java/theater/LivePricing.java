@@ -0,0 +1,70 @@
+package theater;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the pricing rule set currently in force and lets it be replaced at runtime.
+ *
+ * <p>Swapping is a single atomic reference update. Work that is already running keeps the plays it
+ * was bound to, so an in-flight batch finishes with the rule set it started with and is never priced
+ * with a mix of old and new tariffs; work started after the swap binds its plays to the new rule set.
+ * Instances are safe to share between threads.</p>
+ */
+public final class LivePricing {
+
+    private final AtomicReference<PricingRules> current;
+
+    /**
+     * Create a holder starting with the given rule set.
+     *
+     * @param rules the initial rule set
+     */
+    public LivePricing(PricingRules rules) {
+        this.current = new AtomicReference<>(rules);
+    }
+
+    /**
+     * Return the rule set currently in force.
+     *
+     * @return the current rule set
+     */
+    public PricingRules current() {
+        return current.get();
+    }
+
+    /**
+     * Replace the rule set in force.
+     *
+     * @param rules the new rule set
+     * @return the rule set that was replaced
+     */
+    public PricingRules swap(PricingRules rules) {
+        return current.getAndSet(rules);
+    }
+
+    /**
+     * Load a rule set from a properties file and put it in force. If the file is invalid the current
+     * rule set is kept.
+     *
+     * @param path the file to read
+     * @return the rule set that was replaced
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid rule set
+     */
+    public PricingRules reload(Path path) throws IOException {
+        return swap(PricingRules.load(path));
+    }
+
+    /**
+     * Return copies of plays priced by the rule set currently in force, for a new unit of work.
+     *
+     * @param plays the plays keyed by play id
+     * @return new plays bound to the current rule set
+     */
+    public Map<String, Play> bind(Map<String, Play> plays) {
+        return current().bind(plays);
+    }
+}
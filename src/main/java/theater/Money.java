@@ -0,0 +1,75 @@
+package theater;
+
+/**
+ * Exact fixed-point arithmetic on amounts of money held as {@code long} cents.
+ *
+ * <p>Amounts are plain {@code long} values rather than objects, so pricing and totaling never allocate,
+ * and every operation that could exceed the {@code long} range fails with an {@link ArithmeticException}
+ * instead of wrapping around. A {@code long} holds about 92 quadrillion currency units, so no realistic
+ * invoice total comes near the limit. Amounts are formatted exactly by {@link CurrencyFormatter}.</p>
+ */
+public final class Money {
+
+    /**
+     * Number of cents in one currency unit.
+     */
+    public static final int CENTS_PER_UNIT = Constants.PERCENT_FACTOR;
+
+    private Money() {
+
+    }
+
+    /**
+     * Add two amounts.
+     *
+     * @param augend the first amount in cents
+     * @param addend the second amount in cents
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum does not fit in a {@code long}
+     */
+    public static long add(long augend, long addend) {
+        try {
+            return Math.addExact(augend, addend);
+        }
+        catch (ArithmeticException exception) {
+            throw new ArithmeticException(String.format("amount out of range: %d + %d", augend, addend));
+        }
+    }
+
+    /**
+     * Multiply an amount by a whole number, such as a price per person by a number of people.
+     *
+     * @param amount the amount in cents
+     * @param factor the multiplier
+     * @return the product in cents
+     * @throws ArithmeticException if the product does not fit in a {@code long}
+     */
+    public static long multiply(long amount, long factor) {
+        try {
+            return Math.multiplyExact(amount, factor);
+        }
+        catch (ArithmeticException exception) {
+            throw new ArithmeticException(String.format("amount out of range: %d * %d", amount, factor));
+        }
+    }
+
+    /**
+     * Return the whole currency units of an amount, rounded towards zero.
+     *
+     * @param amount the amount in cents
+     * @return the whole units
+     */
+    public static long units(long amount) {
+        return amount / CENTS_PER_UNIT;
+    }
+
+    /**
+     * Return the cents of an amount that are not whole units, with the sign of the amount.
+     *
+     * @param amount the amount in cents
+     * @return the remaining cents
+     */
+    public static int cents(long amount) {
+        return (int) (amount % CENTS_PER_UNIT);
+    }
+}
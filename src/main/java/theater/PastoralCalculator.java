@@ -0,0 +1,24 @@
+package theater;
+
+/**
+ * Pricing rules for pastorals.
+ */
+public final class PastoralCalculator implements PerformanceCalculator {
+
+    @Override
+    public long amountFor(int audience) {
+        long result = Constants.PASTORAL_BASE_AMOUNT;
+        if (audience > Constants.PASTORAL_AUDIENCE_THRESHOLD) {
+            result += (long) Constants.PASTORAL_OVER_BASE_CAPACITY_PER_PERSON
+                    * (audience - Constants.PASTORAL_AUDIENCE_THRESHOLD);
+        }
+        return result;
+    }
+
+    @Override
+    public int volumeCredits(int audience) {
+        // add extra credit for every two pastoral attendees
+        return Math.addExact(Math.max(audience - Constants.PASTORAL_VOLUME_CREDIT_THRESHOLD, 0),
+                audience / Constants.PASTORAL_EXTRA_VOLUME_FACTOR);
+    }
+}
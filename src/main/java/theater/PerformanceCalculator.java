@@ -0,0 +1,60 @@
+package theater;
+
+/**
+ * Pricing rules for one type of play.
+ */
+public interface PerformanceCalculator {
+
+    /**
+     * Calculate the amount for a performance of this type of play.
+     *
+     * @param audience the audience size
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a {@code long}
+     */
+    long amountFor(int audience);
+
+    /**
+     * Calculate the volume credits for a performance of this type of play.
+     *
+     * @param audience the audience size
+     * @return the volume credits earned
+     * @throws ArithmeticException if the credits do not fit in an {@code int}
+     */
+    int volumeCredits(int audience);
+
+    /**
+     * Calculate the total amount for a run of performances of this type of play. Calculators that
+     * are priced in bulk override this so that the whole run is one loop over their own pricing.
+     *
+     * @param audiences the audience sizes
+     * @param from      the index of the first performance
+     * @param to        the index after the last performance
+     * @return the total amount in cents
+     * @throws ArithmeticException if the total does not fit in a {@code long}
+     */
+    default long totalAmount(int[] audiences, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = Money.add(result, amountFor(audiences[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Calculate the total volume credits for a run of performances of this type of play.
+     *
+     * @param audiences the audience sizes
+     * @param from      the index of the first performance
+     * @param to        the index after the last performance
+     * @return the total volume credits
+     * @throws ArithmeticException if the credits of a performance do not fit in an {@code int}
+     */
+    default long totalVolumeCredits(int[] audiences, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result += volumeCredits(audiences[i]);
+        }
+        return result;
+    }
+}
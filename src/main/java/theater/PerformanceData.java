@@ -3,12 +3,16 @@ package theater;
 /**
  * Performance data for a single performance.
  *
+ * <p>The type-specific calculator of the play is captured when the data is created, so pricing is a
+ * direct call on that calculator and never looks at the play type again.</p>
+ *
  * @null Required by the CSC207 Checkstyle configuration.
  */
 public class PerformanceData {
 
     private final Performance performance;
     private final Play play;
+    private final PerformanceCalculator calculator;
 
     /**
      * Create performance data for one performance and its play.
@@ -19,6 +23,7 @@ public class PerformanceData {
     public PerformanceData(Performance performance, Play play) {
         this.performance = performance;
         this.play = play;
+        this.calculator = play.getCalculator();
     }
 
     /**
@@ -53,31 +58,13 @@ public class PerformanceData {
      *
      * @return the amount in cents
      * @throws IllegalArgumentException if the play type is unknown
+     * @throws ArithmeticException if the amount does not fit in a {@code long}
      */
-    public int amountFor() {
-        int result;
-        switch (getType()) {
-            case "tragedy":
-                result = Constants.TRAGEDY_BASE_AMOUNT;
-                if (performance.getAudience() > Constants.TRAGEDY_AUDIENCE_THRESHOLD) {
-                    result += Constants.HISTORY_OVER_BASE_CAPACITY_PER_PERSON
-                            * (performance.getAudience() - Constants.TRAGEDY_AUDIENCE_THRESHOLD);
-                }
-                break;
-            case "comedy":
-                result = Constants.COMEDY_BASE_AMOUNT;
-                if (performance.getAudience() > Constants.COMEDY_AUDIENCE_THRESHOLD) {
-                    result += Constants.COMEDY_OVER_BASE_CAPACITY_AMOUNT
-                            + (Constants.COMEDY_OVER_BASE_CAPACITY_PER_PERSON
-                            * (performance.getAudience() - Constants.COMEDY_AUDIENCE_THRESHOLD));
-                }
-                result += Constants.COMEDY_AMOUNT_PER_AUDIENCE * performance.getAudience();
-                break;
-            default:
-                // 不用 RuntimeException，换成更具体的异常类型
-                throw new IllegalArgumentException(String.format("unknown type: %s", getType()));
+    public long amountFor() {
+        if (StatementMetrics.active()) {
+            return measuredAmountFor();
         }
-        return result;
+        return calculator.amountFor(performance.getAudience());
     }
 
     /**
@@ -86,11 +73,29 @@ public class PerformanceData {
      * @return the volume credits earned
      */
     public int volumeCredits() {
-        int result = Math.max(getAudience() - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0);
-        // add extra credit for every five comedy attendees
-        if ("comedy".equals(getType())) {
-            result += getAudience() / Constants.COMEDY_EXTRA_VOLUME_FACTOR;
+        if (StatementMetrics.active()) {
+            return measuredVolumeCredits();
+        }
+        return calculator.volumeCredits(performance.getAudience());
+    }
+
+    private long measuredAmountFor() {
+        final long start = System.nanoTime();
+        try {
+            return calculator.amountFor(performance.getAudience());
+        }
+        finally {
+            StatementMetrics.get().recordPricing(System.nanoTime() - start);
+        }
+    }
+
+    private int measuredVolumeCredits() {
+        final long start = System.nanoTime();
+        try {
+            return calculator.volumeCredits(performance.getAudience());
+        }
+        finally {
+            StatementMetrics.get().recordCredits(System.nanoTime() - start);
         }
-        return result;
     }
 }
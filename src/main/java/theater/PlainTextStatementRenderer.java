@@ -0,0 +1,52 @@
+package theater;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Renders statements as plain text.
+ */
+public final class PlainTextStatementRenderer implements StatementRenderer {
+
+    private final CurrencyFormatter currency;
+    private final String lineSeparator = System.lineSeparator();
+
+    /**
+     * Create a plain-text renderer showing amounts in US dollars.
+     */
+    public PlainTextStatementRenderer() {
+        this(CurrencyFormatter.forLocale(Locale.US));
+    }
+
+    /**
+     * Create a plain-text renderer with the given currency format.
+     *
+     * @param currency the format for amounts
+     */
+    public PlainTextStatementRenderer(CurrencyFormatter currency) {
+        this.currency = currency;
+    }
+
+    @Override
+    public void header(Appendable out, String customer) throws IOException {
+        out.append("Statement for ").append(customer).append(lineSeparator);
+    }
+
+    @Override
+    public void line(Appendable out, String playName, int audience, long amount) throws IOException {
+        out.append("  ").append(playName).append(": ");
+        currency.appendTo(out, amount);
+        out.append(" (");
+        Appendables.appendInt(out, audience);
+        out.append(" seats)").append(lineSeparator);
+    }
+
+    @Override
+    public void footer(Appendable out, long totalAmount, long volumeCredits) throws IOException {
+        out.append("Amount owed is ");
+        currency.appendTo(out, totalAmount);
+        out.append(lineSeparator).append("You earned ");
+        Appendables.appendInt(out, volumeCredits);
+        out.append(" credits").append(lineSeparator);
+    }
+}
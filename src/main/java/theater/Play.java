@@ -7,10 +7,23 @@ public class Play {
 
     private final String name;
     private final String type;
+    private final PerformanceCalculator calculator;
 
     public Play(String name, String type) {
+        this(name, type, PlayTypeRegistry.getDefault());
+    }
+
+    /**
+     * Create a play whose pricing rules are resolved from the given registry.
+     *
+     * @param name     the play name
+     * @param type     the play type
+     * @param registry the registry to resolve the type in
+     */
+    public Play(String name, String type, PlayTypeRegistry registry) {
         this.name = name;
         this.type = type;
+        this.calculator = registry.lookup(type);
     }
 
     public String getName() {
@@ -20,4 +33,8 @@ public class Play {
     public String getType() {
         return type;
     }
+
+    public PerformanceCalculator getCalculator() {
+        return calculator;
+    }
 }
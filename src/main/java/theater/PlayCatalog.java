@@ -0,0 +1,232 @@
+package theater;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable play catalog in which every play id is interned to a dense integer handle.
+ *
+ * <p>Invoices are resolved against the catalog once, when they are loaded, turning each play id into
+ * a handle; from then on looking up the play of a performance is an array index. Invoices loaded with
+ * {@link JsonLoader#readInvoices(java.io.Reader, PlayCatalog)} are resolved while they are read and
+ * come back as immutable {@link ColumnarInvoice}s bound to the catalog. Play ids that are not in the
+ * catalog are reported when the invoice is resolved rather than failing later while it is being
+ * priced. Instances are safe to share between threads.</p>
+ */
+public final class PlayCatalog {
+
+    private final String[] playIDs;
+    private final Play[] plays;
+    private final PerformanceCalculator[] calculators;
+    private final Map<String, Integer> handles;
+
+    private PlayCatalog(String[] playIDs, Play[] plays) {
+        this.playIDs = playIDs;
+        this.plays = plays;
+        this.calculators = new PerformanceCalculator[plays.length];
+        this.handles = new HashMap<>(plays.length * 2);
+        for (int i = 0; i < plays.length; i++) {
+            calculators[i] = plays[i].getCalculator();
+            handles.put(playIDs[i], i);
+        }
+    }
+
+    /**
+     * Create a catalog holding the given plays. Handles follow the iteration order of the map.
+     *
+     * @param plays the plays keyed by play id
+     * @return the catalog
+     */
+    public static PlayCatalog of(Map<String, Play> plays) {
+        final String[] playIDs = new String[plays.size()];
+        final Play[] values = new Play[plays.size()];
+        int index = 0;
+        for (Map.Entry<String, Play> entry : plays.entrySet()) {
+            playIDs[index] = entry.getKey();
+            values[index] = entry.getValue();
+            index++;
+        }
+        return new PlayCatalog(playIDs, values);
+    }
+
+    /**
+     * Return the number of plays.
+     *
+     * @return the number of plays
+     */
+    public int size() {
+        return plays.length;
+    }
+
+    /**
+     * Return the handle of a play id.
+     *
+     * @param playID the play id
+     * @return the handle, or -1 if the play is not in the catalog
+     */
+    public int handleOf(String playID) {
+        final Integer result = handles.get(playID);
+        if (result == null) {
+            return -1;
+        }
+        return result;
+    }
+
+    /**
+     * Return the play with a handle.
+     *
+     * @param handle the handle
+     * @return the play
+     */
+    public Play getPlay(int handle) {
+        return plays[handle];
+    }
+
+    /**
+     * Return the play id with a handle.
+     *
+     * @param handle the handle
+     * @return the play id
+     */
+    public String getPlayID(int handle) {
+        return playIDs[handle];
+    }
+
+    /**
+     * Return the play ids used by an invoice that are not in the catalog.
+     *
+     * @param invoice the invoice to check
+     * @return the missing play ids in order of first use, or an empty list if all are present
+     */
+    public List<String> missingPlayIDs(Invoice invoice) {
+        final Set<String> result = new LinkedHashSet<>();
+        for (Performance performance : invoice.getPerformances()) {
+            if (!handles.containsKey(performance.getPlayID())) {
+                result.add(performance.getPlayID());
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Resolve the play of every performance of an invoice to its handle.
+     *
+     * @param invoice the invoice
+     * @return a new array with the handle of each performance's play, in performance order
+     * @throws IllegalArgumentException if the invoice uses plays that are not in the catalog
+     */
+    public int[] resolve(Invoice invoice) {
+        final List<Performance> performances = invoice.getPerformances();
+        final int[] result = new int[performances.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Integer handle = handles.get(performances.get(i).getPlayID());
+            if (handle == null) {
+                throw new IllegalArgumentException(String.format("unknown plays in invoice for %s: %s",
+                        invoice.getCustomer(), missingPlayIDs(invoice)));
+            }
+            result[i] = handle;
+        }
+        return result;
+    }
+
+    /**
+     * Resolve an invoice into a columnar invoice whose play indexes are this catalog's handles.
+     *
+     * @param invoice the invoice
+     * @return the resolved invoice
+     * @throws IllegalArgumentException if the invoice uses plays that are not in the catalog
+     */
+    public ColumnarInvoice bind(Invoice invoice) {
+        final int[] playHandles = resolve(invoice);
+        final int[] audiences = new int[playHandles.length];
+        for (int i = 0; i < audiences.length; i++) {
+            audiences[i] = invoice.getPerformances().get(i).getAudience();
+        }
+        return bind(invoice.getCustomer(), audiences, playHandles);
+    }
+
+    /**
+     * Create a columnar invoice from audiences and play handles of this catalog.
+     *
+     * @param customer    the customer name
+     * @param audiences   the audience of each performance
+     * @param playHandles the handle of each performance's play
+     * @return the columnar invoice, which keeps both arrays and never modifies them
+     */
+    ColumnarInvoice bind(String customer, int[] audiences, int[] playHandles) {
+        return new ColumnarInvoice(customer, audiences, playHandles, playIDs, plays, calculators);
+    }
+
+    /**
+     * Return a read-only map view of the catalog, for code that takes a {@code Map<String, Play>}.
+     *
+     * @return an unmodifiable map from play id to play
+     */
+    public Map<String, Play> asMap() {
+        return new MapView();
+    }
+
+    /**
+     * Read-only map view over the catalog arrays.
+     */
+    private final class MapView extends AbstractMap<String, Play> {
+
+        @Override
+        public Play get(Object key) {
+            final Integer handle = handles.get(key);
+            if (handle == null) {
+                return null;
+            }
+            return plays[handle];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return handles.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return plays.length;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Play>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Play>>() {
+                @Override
+                public Iterator<Map.Entry<String, Play>> iterator() {
+                    return new Iterator<Map.Entry<String, Play>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < plays.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Play> next() {
+                            if (next >= plays.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final int handle = next++;
+                            return new AbstractMap.SimpleImmutableEntry<>(playIDs[handle], plays[handle]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return plays.length;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package theater;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the pricing rules for each play type, keyed by the type name used in the play catalog.
+ *
+ * <p>A {@link Play} resolves its calculator from a registry once, when it is created, so pricing a
+ * performance never has to look at the type name again.</p>
+ */
+public final class PlayTypeRegistry {
+
+    private static final PlayTypeRegistry DEFAULT = standard();
+
+    private final Map<String, PerformanceCalculator> calculators = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new registry of the built-in play types.
+     *
+     * @return a registry with tragedy, comedy, history and pastoral calculators
+     */
+    public static PlayTypeRegistry standard() {
+        final PlayTypeRegistry result = new PlayTypeRegistry();
+        result.register("tragedy", new TragedyCalculator());
+        result.register("comedy", new ComedyCalculator());
+        result.register("history", new HistoryCalculator());
+        result.register("pastoral", new PastoralCalculator());
+        return result;
+    }
+
+    /**
+     * Return the shared registry used by plays that are not given one explicitly.
+     *
+     * @return the default registry
+     */
+    public static PlayTypeRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register the calculator for a play type, replacing any previous one.
+     * Plays that were already created keep the calculator they were bound to.
+     *
+     * @param type       the play type
+     * @param calculator the pricing rules for the type
+     */
+    public void register(String type, PerformanceCalculator calculator) {
+        calculators.put(type, calculator);
+    }
+
+    /**
+     * Return whether a calculator is registered for a play type.
+     *
+     * @param type the play type
+     * @return true if the type is known
+     */
+    public boolean isRegistered(String type) {
+        return calculators.containsKey(type);
+    }
+
+    /**
+     * Return the play types that have registered calculators.
+     *
+     * @return an unmodifiable view of the registered types
+     */
+    public Set<String> types() {
+        return Collections.unmodifiableSet(calculators.keySet());
+    }
+
+    /**
+     * Return the calculator for a play type. For an unknown type the returned calculator
+     * throws an {@link IllegalArgumentException} when an amount is requested.
+     *
+     * @param type the play type
+     * @return the calculator for the type
+     */
+    public PerformanceCalculator lookup(String type) {
+        final PerformanceCalculator result = calculators.get(type);
+        if (result == null) {
+            return new UnknownTypeCalculator(type);
+        }
+        return result;
+    }
+
+    /**
+     * Calculator bound to plays whose type has no registered pricing rules.
+     */
+    private static final class UnknownTypeCalculator implements PerformanceCalculator {
+
+        private final String type;
+
+        UnknownTypeCalculator(String type) {
+            this.type = type;
+        }
+
+        @Override
+        public long amountFor(int audience) {
+            // counted here, so every pricing path reports the error without checking each line
+            if (StatementMetrics.active()) {
+                StatementMetrics.get().recordError(type);
+            }
+            throw new IllegalArgumentException(String.format("unknown type: %s", type));
+        }
+
+        @Override
+        public int volumeCredits(int audience) {
+            return Math.max(audience - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0);
+        }
+    }
+}
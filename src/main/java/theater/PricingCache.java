@@ -0,0 +1,209 @@
+package theater;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes per-performance pricing by precomputing amounts and volume credits for a range of
+ * audience sizes.
+ *
+ * <p>Each wrapped calculator gets dense primitive tables covering {@code [minAudience, maxAudience]},
+ * filled once from the original calculator so results are identical to uncached pricing. Audiences
+ * outside the range fall through to the original calculator. The tables never change after
+ * construction, so a cache and the calculators it produces can be shared between threads.</p>
+ *
+ * <p>Hit and miss counting is off unless requested when the cache is created, so the lookups of a cache
+ * on the pricing hot path do not pay for shared counter updates.</p>
+ */
+public final class PricingCache {
+
+    /**
+     * Largest number of audience sizes a single table may cover.
+     */
+    public static final int MAX_TABLE_SIZE = 1 << 20;
+
+    private final int minAudience;
+    private final int maxAudience;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final boolean statistics;
+
+    /**
+     * Create a cache covering the given audience sizes, without hit and miss statistics.
+     *
+     * @param minAudience the smallest audience size to precompute
+     * @param maxAudience the largest audience size to precompute
+     * @throws IllegalArgumentException if the range is empty or larger than {@link #MAX_TABLE_SIZE}
+     */
+    public PricingCache(int minAudience, int maxAudience) {
+        this(minAudience, maxAudience, false);
+    }
+
+    /**
+     * Create a cache covering the given audience sizes.
+     *
+     * @param minAudience the smallest audience size to precompute
+     * @param maxAudience the largest audience size to precompute
+     * @param statistics  whether to count hits and misses
+     * @throws IllegalArgumentException if the range is empty or larger than {@link #MAX_TABLE_SIZE}
+     */
+    public PricingCache(int minAudience, int maxAudience, boolean statistics) {
+        if (maxAudience < minAudience || (long) maxAudience - minAudience >= MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format("invalid audience range: [%d, %d]", minAudience, maxAudience));
+        }
+        this.minAudience = minAudience;
+        this.maxAudience = maxAudience;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Wrap a calculator with precomputed tables.
+     *
+     * @param delegate the calculator to memoize
+     * @return a calculator giving the same results as {@code delegate}
+     */
+    public PerformanceCalculator cache(PerformanceCalculator delegate) {
+        return new CachedCalculator(delegate);
+    }
+
+    /**
+     * Create a registry whose calculators are the cached versions of those in {@code source}.
+     * Types that are unknown to {@code source} stay unknown.
+     *
+     * @param source the registry to memoize
+     * @return a new registry for creating plays with cached pricing
+     */
+    public PlayTypeRegistry cache(PlayTypeRegistry source) {
+        final PlayTypeRegistry result = new PlayTypeRegistry();
+        for (String type : source.types()) {
+            result.register(type, cache(source.lookup(type)));
+        }
+        return result;
+    }
+
+    public int getMinAudience() {
+        return minAudience;
+    }
+
+    public int getMaxAudience() {
+        return maxAudience;
+    }
+
+    /**
+     * Return whether hits and misses are counted.
+     *
+     * @return true if statistics are enabled
+     */
+    public boolean isStatisticsEnabled() {
+        return statistics;
+    }
+
+    /**
+     * Return the number of lookups answered from the tables, or 0 if statistics are disabled.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Return the number of lookups that fell outside the tables, or 0 if statistics are disabled.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Return the fraction of lookups answered from the tables.
+     *
+     * @return the hit rate, or 0 if there have been no lookups
+     */
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hitCount / total;
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * A calculator backed by precomputed tables with a fallback to the original calculator.
+     */
+    private final class CachedCalculator implements PerformanceCalculator {
+
+        private final PerformanceCalculator delegate;
+        private final long[] amounts;
+        private final int[] credits;
+
+        CachedCalculator(PerformanceCalculator delegate) {
+            this.delegate = delegate;
+            final int size = maxAudience - minAudience + 1;
+            this.amounts = new long[size];
+            this.credits = new int[size];
+            for (int i = 0; i < size; i++) {
+                amounts[i] = delegate.amountFor(minAudience + i);
+                credits[i] = delegate.volumeCredits(minAudience + i);
+            }
+        }
+
+        @Override
+        public long amountFor(int audience) {
+            final int index = audience - minAudience;
+            if (index >= 0 && index < amounts.length) {
+                if (statistics) {
+                    hits.increment();
+                }
+                return amounts[index];
+            }
+            if (statistics) {
+                misses.increment();
+            }
+            return delegate.amountFor(audience);
+        }
+
+        @Override
+        public int volumeCredits(int audience) {
+            final int index = audience - minAudience;
+            if (index >= 0 && index < credits.length) {
+                if (statistics) {
+                    hits.increment();
+                }
+                return credits[index];
+            }
+            if (statistics) {
+                misses.increment();
+            }
+            return delegate.volumeCredits(audience);
+        }
+
+        @Override
+        public long totalAmount(int[] audiences, int from, int to) {
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                result = Money.add(result, amountFor(audiences[i]));
+            }
+            return result;
+        }
+
+        @Override
+        public long totalVolumeCredits(int[] audiences, int from, int to) {
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                result += volumeCredits(audiences[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package theater;
+
+/**
+ * Pricing rules for one play type, compiled from configuration into a fixed set of integer parameters.
+ *
+ * <p>The amount for a performance is a base amount, plus a fixed and a per-person supplement for every
+ * attendee above the audience threshold, plus an amount per attendee. The volume credits are one per
+ * attendee above the credit threshold, plus one for every {@code extraCreditDivisor} attendees if the
+ * divisor is positive. Every built-in play type is an instance of this shape, and evaluation is the same
+ * few integer operations as the hand-written calculators. Instances are immutable.</p>
+ */
+public final class PricingRule implements PerformanceCalculator {
+
+    private final int baseAmount;
+    private final int audienceThreshold;
+    private final int overThresholdAmount;
+    private final int overThresholdPerPerson;
+    private final int perAudience;
+    private final int creditThreshold;
+    private final int extraCreditDivisor;
+
+    /**
+     * Create a pricing rule.
+     *
+     * @param baseAmount             the amount charged for every performance, in cents
+     * @param audienceThreshold      the audience size above which the supplements apply
+     * @param overThresholdAmount    the fixed supplement once the threshold is exceeded, in cents
+     * @param overThresholdPerPerson the supplement per attendee above the threshold, in cents
+     * @param perAudience            the amount per attendee, in cents
+     * @param creditThreshold        the audience size above which volume credits are earned
+     * @param extraCreditDivisor     one extra credit is earned per this many attendees, or 0 for none
+     * @throws IllegalArgumentException if the extra credit divisor is negative
+     */
+    public PricingRule(int baseAmount, int audienceThreshold, int overThresholdAmount, int overThresholdPerPerson,
+                       int perAudience, int creditThreshold, int extraCreditDivisor) {
+        if (extraCreditDivisor < 0) {
+            throw new IllegalArgumentException(
+                    String.format("extra credit divisor must not be negative: %d", extraCreditDivisor));
+        }
+        this.baseAmount = baseAmount;
+        this.audienceThreshold = audienceThreshold;
+        this.overThresholdAmount = overThresholdAmount;
+        this.overThresholdPerPerson = overThresholdPerPerson;
+        this.perAudience = perAudience;
+        this.creditThreshold = creditThreshold;
+        this.extraCreditDivisor = extraCreditDivisor;
+    }
+
+    @Override
+    public long amountFor(int audience) {
+        long result = baseAmount;
+        if (audience > audienceThreshold) {
+            result = Money.add(result, Money.add(overThresholdAmount,
+                    Money.multiply(overThresholdPerPerson, (long) audience - audienceThreshold)));
+        }
+        return Money.add(result, Money.multiply(perAudience, audience));
+    }
+
+    @Override
+    public int volumeCredits(int audience) {
+        int result = Math.max(audience - creditThreshold, 0);
+        if (extraCreditDivisor > 0) {
+            result = Math.addExact(result, audience / extraCreditDivisor);
+        }
+        return result;
+    }
+
+    // the bulk methods repeat the interface defaults so that the loops are compiled against this final
+    // class and the per-performance pricing is inlined instead of called through the interface
+
+    @Override
+    public long totalAmount(int[] audiences, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = Money.add(result, amountFor(audiences[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public long totalVolumeCredits(int[] audiences, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result += volumeCredits(audiences[i]);
+        }
+        return result;
+    }
+}
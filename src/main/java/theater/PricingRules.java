@@ -0,0 +1,176 @@
+package theater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An immutable set of {@link PricingRule}s, one per play type, loaded from a properties file.
+ *
+ * <p>Each property is named {@code <type>.<parameter>}, where the parameters are {@code baseAmount}
+ * (required), {@code audienceThreshold}, {@code overThresholdAmount}, {@code overThresholdPerPerson},
+ * {@code perAudience}, {@code creditThreshold} and {@code extraCreditDivisor}, which default to 0.
+ * The built-in tariffs are bundled as {@code theater/pricing.properties}. A rule set is compiled once,
+ * when it is loaded; plays are then bound to it through {@link #registry()} or {@link #bind(Map)}, and
+ * for very large batches its registry can be wrapped in a {@link PricingCache}.</p>
+ */
+public final class PricingRules {
+
+    /**
+     * Classpath location of the built-in tariffs.
+     */
+    public static final String STANDARD_RESOURCE = "theater/pricing.properties";
+
+    private static final String BASE_AMOUNT = "baseAmount";
+    private static final Set<String> PARAMETERS = Set.of(BASE_AMOUNT, "audienceThreshold",
+            "overThresholdAmount", "overThresholdPerPerson", "perAudience", "creditThreshold",
+            "extraCreditDivisor");
+
+    private final Map<String, PricingRule> rules;
+
+    private PricingRules(Map<String, PricingRule> rules) {
+        this.rules = Collections.unmodifiableMap(rules);
+    }
+
+    /**
+     * Load the built-in tariffs.
+     *
+     * @return the standard rule set
+     * @throws UncheckedIOException if the bundled resource cannot be read
+     */
+    public static PricingRules standard() {
+        final InputStream in = PricingRules.class.getClassLoader().getResourceAsStream(STANDARD_RESOURCE);
+        if (in == null) {
+            throw new UncheckedIOException(new IOException(String.format("missing resource: %s", STANDARD_RESOURCE)));
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Load a rule set from a properties file.
+     *
+     * @param path the file to read
+     * @return the rule set
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid rule set
+     */
+    public static PricingRules load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Load a rule set in properties format.
+     *
+     * @param in the properties to read
+     * @return the rule set
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is not a valid rule set
+     */
+    public static PricingRules load(Reader in) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(in);
+        final Map<String, Map<String, Integer>> parameters = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            final int dot = key.lastIndexOf('.');
+            if (dot <= 0 || !PARAMETERS.contains(key.substring(dot + 1))) {
+                throw new IllegalArgumentException(String.format("unknown pricing parameter: %s", key));
+            }
+            parameters.computeIfAbsent(key.substring(0, dot), type -> new LinkedHashMap<>())
+                    .put(key.substring(dot + 1), parseInt(key, properties.getProperty(key)));
+        }
+        final Map<String, PricingRule> rules = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : parameters.entrySet()) {
+            rules.put(entry.getKey(), compile(entry.getKey(), entry.getValue()));
+        }
+        return new PricingRules(rules);
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(String.format("invalid value for %s: %s", key, value), exception);
+        }
+    }
+
+    private static PricingRule compile(String type, Map<String, Integer> parameters) {
+        if (!parameters.containsKey(BASE_AMOUNT)) {
+            throw new IllegalArgumentException(String.format("missing %s.%s", type, BASE_AMOUNT));
+        }
+        return new PricingRule(parameters.get(BASE_AMOUNT),
+                parameters.getOrDefault("audienceThreshold", 0),
+                parameters.getOrDefault("overThresholdAmount", 0),
+                parameters.getOrDefault("overThresholdPerPerson", 0),
+                parameters.getOrDefault("perAudience", 0),
+                parameters.getOrDefault("creditThreshold", 0),
+                parameters.getOrDefault("extraCreditDivisor", 0));
+    }
+
+    /**
+     * Return the play types this rule set prices.
+     *
+     * @return the play types, in sorted order
+     */
+    public Set<String> types() {
+        return Collections.unmodifiableSet(new TreeSet<>(rules.keySet()));
+    }
+
+    /**
+     * Return the rule for a play type.
+     *
+     * @param type the play type
+     * @return the rule, or {@code null} if the type is not priced by this rule set
+     */
+    public PricingRule rule(String type) {
+        return rules.get(type);
+    }
+
+    /**
+     * Create a registry holding this rule set's rules.
+     *
+     * @return a new registry
+     */
+    public PlayTypeRegistry registry() {
+        final PlayTypeRegistry result = new PlayTypeRegistry();
+        for (Map.Entry<String, PricingRule> entry : rules.entrySet()) {
+            result.register(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Return copies of plays priced by this rule set.
+     *
+     * @param plays the plays keyed by play id
+     * @return new plays with the same ids, names and types, in the same iteration order
+     */
+    public Map<String, Play> bind(Map<String, Play> plays) {
+        final PlayTypeRegistry registry = registry();
+        final Map<String, Play> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Play> entry : plays.entrySet()) {
+            final Play play = entry.getValue();
+            result.put(entry.getKey(), new Play(play.getName(), play.getType(), registry));
+        }
+        return result;
+    }
+}
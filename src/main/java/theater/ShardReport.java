@@ -0,0 +1,101 @@
+package theater;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of one shard of a {@link BillingRun}: how many statements it wrote and how fast, whether it
+ * was already finished by an earlier run, or the error that stopped it.
+ */
+public final class ShardReport {
+
+    private final int shard;
+    private final int invoices;
+    private final long bytes;
+    private final long nanos;
+    private final boolean resumed;
+    private final Exception error;
+
+    ShardReport(int shard, int invoices, long bytes, long nanos, boolean resumed, Exception error) {
+        this.shard = shard;
+        this.invoices = invoices;
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.resumed = resumed;
+        this.error = error;
+    }
+
+    /**
+     * Return the shard number.
+     *
+     * @return the shard number, starting at 0
+     */
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * Return the number of invoices in the shard.
+     *
+     * @return the invoice count
+     */
+    public int getInvoices() {
+        return invoices;
+    }
+
+    /**
+     * Return the size of the shard's statement file.
+     *
+     * @return the size in bytes, or 0 if the shard failed
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Return how long the shard took to render and write.
+     *
+     * @return the elapsed time in nanoseconds, as recorded by the run that finished it
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Return whether the shard was finished by an earlier run and skipped by this one.
+     *
+     * @return true if the shard was resumed from the checkpoint
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Return whether the shard's statements were written.
+     *
+     * @return true if the shard finished, in this run or an earlier one
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Return why the shard failed.
+     *
+     * @return the error, or {@code null} if the shard finished
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Return the shard's throughput.
+     *
+     * @return invoices per second, or 0 if no time was recorded
+     */
+    public double getThroughput() {
+        if (nanos == 0) {
+            return 0;
+        }
+        return invoices * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+}
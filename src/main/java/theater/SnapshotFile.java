@@ -0,0 +1,308 @@
+package theater;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Low-level layout shared by the binary snapshot formats.
+ *
+ * <p>A snapshot file is a fixed header, a sequence of units (one per play or invoice), an optional
+ * trailer unit, and an index holding the file offset of every unit. The header is magic number,
+ * version, segment size, unit count, index offset and trailer offset. All values are little-endian.</p>
+ *
+ * <p>Files are memory-mapped as a sequence of fixed-size segments so that snapshots larger than one
+ * {@link MappedByteBuffer} can be read. Writers never let a unit cross a segment boundary; they pad
+ * to the next segment instead. The index is aligned so its entries never cross a boundary either, so
+ * readers resolve every field with a single segment lookup and no copying.</p>
+ */
+final class SnapshotFile {
+
+    /**
+     * Default segment size of new snapshots.
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * Current version of the snapshot formats.
+     */
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int UNIT_COUNT_OFFSET = 12;
+    private static final int INDEX_OFFSET_OFFSET = 16;
+    private static final int TRAILER_OFFSET_OFFSET = 24;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_UNITS = 1024;
+
+    private SnapshotFile() {
+
+    }
+
+    /**
+     * Number of bytes a string occupies in a snapshot.
+     *
+     * @param utf8 the encoded string
+     * @return the size including its length prefix
+     */
+    static int stringSize(byte[] utf8) {
+        return Integer.BYTES + utf8.length;
+    }
+
+    /**
+     * Sequential writer for a snapshot file.
+     */
+    static final class Output implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final int magic;
+        private final int segmentSize;
+        private long position;
+        private long[] unitOffsets = new long[INITIAL_UNITS];
+        private int unitCount;
+        private long trailerOffset;
+
+        /**
+         * Create a new snapshot file, replacing any existing one.
+         *
+         * @param path        the file to write
+         * @param magic       the magic number identifying the kind of snapshot
+         * @param segmentSize the segment size; a positive multiple of 8 of at least the header size
+         * @throws IOException if the file cannot be created
+         * @throws IllegalArgumentException if the segment size is invalid
+         */
+        Output(Path path, int magic, int segmentSize) throws IOException {
+            if (segmentSize < HEADER_SIZE || segmentSize % Long.BYTES != 0) {
+                throw new IllegalArgumentException(String.format("invalid segment size: %d", segmentSize));
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.magic = magic;
+            this.segmentSize = segmentSize;
+            for (int i = 0; i < HEADER_SIZE; i++) {
+                putByte((byte) 0);
+            }
+        }
+
+        /**
+         * Start the next unit of {@code size} bytes, padding to the next segment if it would cross a boundary.
+         *
+         * @param size the size of the unit
+         * @throws IOException if writing fails
+         * @throws IllegalArgumentException if the unit is larger than a segment
+         */
+        void beginUnit(long size) throws IOException {
+            align(size);
+            if (unitCount == unitOffsets.length) {
+                unitOffsets = Arrays.copyOf(unitOffsets, unitCount * 2);
+            }
+            unitOffsets[unitCount++] = position;
+        }
+
+        /**
+         * Start the trailer unit of {@code size} bytes, written after all other units.
+         *
+         * @param size the size of the trailer
+         * @throws IOException if writing fails
+         * @throws IllegalArgumentException if the trailer is larger than a segment
+         */
+        void beginTrailer(long size) throws IOException {
+            align(size);
+            trailerOffset = position;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putString(byte[] utf8) throws IOException {
+            putInt(utf8.length);
+            int written = 0;
+            while (written < utf8.length) {
+                ensure(1);
+                final int chunk = Math.min(buffer.remaining(), utf8.length - written);
+                buffer.put(utf8, written, chunk);
+                written += chunk;
+            }
+            position += utf8.length;
+        }
+
+        private void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        private void align(long size) throws IOException {
+            if (size > segmentSize) {
+                throw new IllegalArgumentException(
+                        String.format("snapshot unit of %d bytes exceeds segment size %d", size, segmentSize));
+            }
+            final long offset = position % segmentSize;
+            if (offset + size > segmentSize) {
+                for (long i = offset; i < segmentSize; i++) {
+                    putByte((byte) 0);
+                }
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Write the unit index and the header, then close the file.
+         *
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                while (position % Long.BYTES != 0) {
+                    putByte((byte) 0);
+                }
+                final long indexOffset = position;
+                for (int i = 0; i < unitCount; i++) {
+                    ensure(Long.BYTES);
+                    buffer.putLong(unitOffsets[i]);
+                    position += Long.BYTES;
+                }
+                flush();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(magic).putInt(VERSION).putInt(segmentSize).putInt(unitCount)
+                        .putLong(indexOffset).putLong(trailerOffset);
+                header.flip();
+                long at = 0;
+                while (header.hasRemaining()) {
+                    at += channel.write(header, at);
+                }
+            }
+            finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Random-access reader over a memory-mapped snapshot file.
+     */
+    static final class Input {
+
+        private final ByteBuffer[] segments;
+        private final int segmentSize;
+        private final int unitCount;
+        private final long indexOffset;
+        private final long trailerOffset;
+
+        /**
+         * Map a snapshot file whose header starts with the given magic number.
+         *
+         * @param path  the file to map
+         * @param magic the expected magic number
+         * @throws IOException if the file cannot be mapped
+         * @throws IllegalArgumentException if the file is not a snapshot of the expected kind or version
+         */
+        Input(Path path, int magic) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                    // keep reading until the header is complete or the file ends
+                }
+                if (header.hasRemaining() || header.getInt(0) != magic) {
+                    throw new IllegalArgumentException(String.format("not a snapshot of the expected kind: %s", path));
+                }
+                final int version = header.getInt(Integer.BYTES);
+                if (version != VERSION) {
+                    throw new IllegalArgumentException(String.format("unsupported snapshot version: %d", version));
+                }
+                segmentSize = header.getInt(Integer.BYTES * 2);
+                unitCount = header.getInt(UNIT_COUNT_OFFSET);
+                indexOffset = header.getLong(INDEX_OFFSET_OFFSET);
+                trailerOffset = header.getLong(TRAILER_OFFSET_OFFSET);
+                segments = new ByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+                for (int i = 0; i < segments.length; i++) {
+                    final long start = (long) i * segmentSize;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start))
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }
+        }
+
+        int getUnitCount() {
+            return unitCount;
+        }
+
+        long getTrailerOffset() {
+            return trailerOffset;
+        }
+
+        /**
+         * Return the file offset of a unit.
+         *
+         * @param unit the unit number
+         * @return the offset of its first byte
+         * @throws IndexOutOfBoundsException if there is no such unit
+         */
+        long unitOffset(int unit) {
+            if (unit < 0 || unit >= unitCount) {
+                throw new IndexOutOfBoundsException(String.format("unit %d of %d", unit, unitCount));
+            }
+            return getLong(indexOffset + (long) unit * Long.BYTES);
+        }
+
+        int getInt(long position) {
+            return segments[(int) (position / segmentSize)].getInt((int) (position % segmentSize));
+        }
+
+        long getLong(long position) {
+            return segments[(int) (position / segmentSize)].getLong((int) (position % segmentSize));
+        }
+
+        /**
+         * Decode the length-prefixed string at a position.
+         *
+         * @param position the position of the length prefix
+         * @return the string
+         */
+        String getString(long position) {
+            final ByteBuffer segment = segments[(int) (position / segmentSize)];
+            final int offset = (int) (position % segmentSize);
+            final byte[] bytes = new byte[segment.getInt(offset)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = segment.get(offset + Integer.BYTES + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Return the position just after the string at a position.
+         *
+         * @param position the position of the length prefix
+         * @return the position of the next field
+         */
+        long skipString(long position) {
+            return position + Integer.BYTES + getInt(position);
+        }
+    }
+}
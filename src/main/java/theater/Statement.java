@@ -3,16 +3,48 @@ package theater;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Statement for an invoice.
+ *
+ * <p>Nothing is computed up front. The totals are calculated together in a single pass over the
+ * invoice's performances the first time either is requested, without creating any per-line objects,
+ * and are then cached. The per-line {@link PerformanceData} list is only built if a caller such as a
+ * renderer asks for it.</p>
+ *
+ * <p>Invoices with at least {@link #PARALLEL_THRESHOLD} performances are priced in chunks on the common
+ * fork-join pool and the partial totals are combined. Amounts are added with {@link Money}, so both paths
+ * give identical results and a total beyond the {@code long} range fails with an
+ * {@link ArithmeticException} instead of wrapping around. While {@link StatementMetrics} are enabled the
+ * time to compute the totals is recorded around whichever path runs, so measuring does not change the
+ * code being measured.</p>
  * @null Required by the CSC207 Checkstyle configuration.
  */
-class Statement {
+public class Statement {
+
+    /**
+     * Smallest number of performances for which the totals are computed in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Number of performances priced sequentially by each parallel task.
+     */
+    static final int PARALLEL_CHUNK_SIZE = 1 << 11;
 
     private final Invoice invoice;
     private final Map<String, Play> plays;
-    private final List<PerformanceData> performances;
+    private final PlayCatalog catalog;
+    private final int[] handles;
+    private final ColumnarInvoice columnar;
+
+    private volatile List<PerformanceData> performances;
+    private long totalAmount;
+    private long volumeCredits;
+    private volatile boolean totalsComputed;
 
     /**
      * Create a statement for an invoice and its plays.
@@ -20,17 +52,70 @@ class Statement {
      * @param invoice the invoice
      * @param plays   the plays for the performances in the invoice
      */
-    Statement(Invoice invoice, Map<String, Play> plays) {
+    public Statement(Invoice invoice, Map<String, Play> plays) {
         this.invoice = invoice;
         this.plays = plays;
-        this.performances = new ArrayList<>();
-        for (Performance performance : invoice.getPerformances()) {
-            performances.add(createPerformanceData(performance));
+        this.catalog = null;
+        this.handles = null;
+        this.columnar = null;
+        recordStatement();
+    }
+
+    /**
+     * Create a statement for an invoice, resolving its plays through an indexed catalog.
+     *
+     * @param invoice the invoice
+     * @param catalog the catalog holding the plays for the performances in the invoice
+     * @throws IllegalArgumentException if the invoice uses plays that are not in the catalog
+     */
+    public Statement(Invoice invoice, PlayCatalog catalog) {
+        this(invoice, catalog, catalog.resolve(invoice));
+    }
+
+    /**
+     * Create a statement for an invoice whose plays were already resolved to catalog handles.
+     *
+     * @param invoice the invoice
+     * @param catalog the catalog the handles belong to
+     * @param handles the handle of each performance's play, in performance order
+     */
+    Statement(Invoice invoice, PlayCatalog catalog, int[] handles) {
+        this(invoice, catalog, handles, null);
+    }
+
+    /**
+     * Create a statement whose totals are computed from a columnar form of the same invoice, so that
+     * the invoice's performances can be a view that is only read when the lines are built.
+     *
+     * @param invoice  the invoice
+     * @param catalog  the catalog the handles belong to
+     * @param handles  the handle of each performance's play, in performance order
+     * @param columnar the same invoice in columnar form, or {@code null} to price the performances
+     */
+    Statement(Invoice invoice, PlayCatalog catalog, int[] handles, ColumnarInvoice columnar) {
+        this.invoice = invoice;
+        this.plays = null;
+        this.catalog = catalog;
+        this.handles = handles;
+        this.columnar = columnar;
+        recordStatement();
+    }
+
+    private void recordStatement() {
+        if (StatementMetrics.active()) {
+            StatementMetrics.get().recordStatement(invoice.getPerformances().size());
         }
     }
 
-    private PerformanceData createPerformanceData(Performance performance) {
-        return new PerformanceData(performance, plays.get(performance.getPlayID()));
+    private Play getPlay(int index, Performance performance) {
+        if (handles != null) {
+            return catalog.getPlay(handles[index]);
+        }
+        final Play play = plays.get(performance.getPlayID());
+        if (play == null) {
+            throw new IllegalArgumentException(String.format("unknown play: %s", performance.getPlayID()));
+        }
+        return play;
     }
 
     /**
@@ -43,38 +128,162 @@ class Statement {
     }
 
     /**
-     * Get the performances in this statement.
+     * Get the performances in this statement, building them on first use.
      *
      * @return the performances
+     * @throws IllegalArgumentException if a performance refers to an unknown play
      */
     public List<PerformanceData> getPerformances() {
-        return performances;
+        List<PerformanceData> result = performances;
+        if (result == null) {
+            final boolean measured = StatementMetrics.active();
+            long start = 0;
+            if (measured) {
+                start = System.nanoTime();
+            }
+            result = new ArrayList<>(invoice.getPerformances().size());
+            int index = 0;
+            for (Performance performance : invoice.getPerformances()) {
+                result.add(new PerformanceData(performance, getPlay(index++, performance)));
+            }
+            performances = result;
+            if (measured) {
+                StatementMetrics.get().recordConstruction(System.nanoTime() - start);
+            }
+        }
+        return result;
     }
 
     /**
      * Get total amount for all performances.
      *
      * @return the total amount in cents
+     * @throws IllegalArgumentException if a performance refers to an unknown play or play type
+     * @throws ArithmeticException if the total does not fit in a {@code long}
      */
-    public int totalAmount() {
-        int result = 0;
-        for (PerformanceData performanceData : performances) {
-            result += performanceData.amountFor();
-        }
-        return result;
+    public long totalAmount() {
+        computeTotals();
+        return totalAmount;
     }
 
     /**
      * Get total volume credits for all performances.
      *
      * @return the total volume credits
+     * @throws IllegalArgumentException if a performance refers to an unknown play or play type
      */
-    public int volumeCredits() {
-        int result = 0;
-        for (PerformanceData performanceData : performances) {
-            result += performanceData.volumeCredits();
+    public long volumeCredits() {
+        computeTotals();
+        return volumeCredits;
+    }
+
+    private void computeTotals() {
+        if (totalsComputed) {
+            return;
+        }
+        final boolean measured = StatementMetrics.active();
+        long start = 0;
+        if (measured) {
+            start = System.nanoTime();
+        }
+        try {
+            priceTotals();
+        }
+        finally {
+            if (measured) {
+                StatementMetrics.get().recordTotals(System.nanoTime() - start);
+            }
         }
-        return result;
     }
-}
 
+    private void priceTotals() {
+        final List<Performance> list = invoice.getPerformances();
+        long amount = 0;
+        long credits = 0;
+        if (columnar != null) {
+            amount = columnar.totalAmount();
+            credits = columnar.volumeCredits();
+        }
+        else if (list.size() >= PARALLEL_THRESHOLD) {
+            final List<Performance> indexed;
+            if (list instanceof RandomAccess) {
+                indexed = list;
+            }
+            else {
+                indexed = new ArrayList<>(list);
+            }
+            final long[] totals = invokeUnwrapped(new TotalsTask(indexed, 0, indexed.size()));
+            amount = totals[0];
+            credits = totals[1];
+        }
+        else {
+            int index = 0;
+            for (Performance performance : list) {
+                final PerformanceCalculator calculator = getPlay(index++, performance).getCalculator();
+                amount = Money.add(amount, calculator.amountFor(performance.getAudience()));
+                credits = Math.addExact(credits, calculator.volumeCredits(performance.getAudience()));
+            }
+        }
+        totalAmount = amount;
+        volumeCredits = credits;
+        // the volatile write publishes both totals to other threads
+        totalsComputed = true;
+    }
+
+    /**
+     * Run the totals on the common pool. A task that failed on another worker is rethrown by the pool as a
+     * copy, which for an {@link ArithmeticException} has no message, so the original is thrown instead.
+     */
+    private static long[] invokeUnwrapped(TotalsTask task) {
+        try {
+            return ForkJoinPool.commonPool().invoke(task);
+        }
+        catch (RuntimeException exception) {
+            if (exception.getCause() != null && exception.getCause().getClass() == exception.getClass()) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Prices a range of performances, splitting it in half until it is at most one chunk.
+     */
+    private final class TotalsTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Performance> list;
+        private final int from;
+        private final int to;
+
+        TotalsTask(List<Performance> list, int from, int to) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                long amount = 0;
+                long credits = 0;
+                for (int i = from; i < to; i++) {
+                    final Performance performance = list.get(i);
+                    final PerformanceCalculator calculator = getPlay(i, performance).getCalculator();
+                    amount = Money.add(amount, calculator.amountFor(performance.getAudience()));
+                    credits = Math.addExact(credits, calculator.volumeCredits(performance.getAudience()));
+                }
+                return new long[] {amount, credits};
+            }
+            final int middle = (from + to) >>> 1;
+            final TotalsTask left = new TotalsTask(list, from, middle);
+            left.fork();
+            final long[] result = new TotalsTask(list, middle, to).compute();
+            final long[] other = left.join();
+            result[0] = Money.add(result[0], other[0]);
+            result[1] = Math.addExact(result[1], other[1]);
+            return result;
+        }
+    }
+}
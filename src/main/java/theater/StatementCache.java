@@ -0,0 +1,315 @@
+package theater;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches rendered statements so that invoices rendered again unchanged are served without being priced
+ * or formatted.
+ *
+ * <p>Entries are keyed by a 64-bit hash of the invoice content, its customer and every performance, and
+ * hold a copy of that content so a hash collision can never return another invoice's statement. Each
+ * entry also remembers the {@link Play} objects it was rendered with. Plays are immutable, so a play that
+ * was changed in the catalog is a different object: the entry no longer matches and is rendered again,
+ * while entries for invoices that do not use the changed play stay valid.</p>
+ *
+ * <p>Statements are stored as UTF-8 bytes, on the heap or optionally off-heap in direct buffers. The
+ * least recently used entries are evicted once either the entry limit or the byte limit is exceeded.
+ * Instances are safe to share between threads.</p>
+ */
+public final class StatementCache {
+
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final StatementRenderer renderer;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    /**
+     * Create an on-heap cache of plain-text statements.
+     *
+     * @param maxEntries the maximum number of statements kept
+     * @param maxBytes   the maximum total size of the statements kept, in bytes
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public StatementCache(int maxEntries, long maxBytes) {
+        this(new PlainTextStatementRenderer(), maxEntries, maxBytes, false);
+    }
+
+    /**
+     * Create a cache of statements in the given output format.
+     *
+     * @param renderer   the output format
+     * @param maxEntries the maximum number of statements kept
+     * @param maxBytes   the maximum total size of the statements kept, in bytes
+     * @param offHeap    whether to keep the statements in direct buffers outside the Java heap
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public StatementCache(StatementRenderer renderer, int maxEntries, long maxBytes, boolean offHeap) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("cache limits must be positive: %d entries, %d bytes", maxEntries, maxBytes));
+        }
+        this.renderer = renderer;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Return the statement for an invoice, rendering it only if it is not cached.
+     *
+     * @param invoice the invoice
+     * @param plays   the plays for the performances in the invoice
+     * @return the rendered statement
+     * @throws IllegalArgumentException if the invoice uses an unknown play or a play type that cannot be priced
+     */
+    public String statement(Invoice invoice, Map<String, Play> plays) {
+        final ByteBuffer result = bytes(invoice, plays);
+        return StandardCharsets.UTF_8.decode(result).toString();
+    }
+
+    /**
+     * Return the statement for an invoice as UTF-8 bytes, rendering it only if it is not cached.
+     *
+     * @param invoice the invoice
+     * @param plays   the plays for the performances in the invoice
+     * @return a read-only buffer holding the statement, positioned at its start
+     * @throws IllegalArgumentException if the invoice uses an unknown play or a play type that cannot be priced
+     */
+    public ByteBuffer bytes(Invoice invoice, Map<String, Play> plays) {
+        final long key = hash(invoice);
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.matches(invoice, plays)) {
+                    hits.increment();
+                    return entry.statement.asReadOnlyBuffer();
+                }
+                if (entry.sameInvoice(invoice)) {
+                    invalidations.increment();
+                }
+                remove(key, entry);
+            }
+        }
+        misses.increment();
+        final Entry created = render(invoice, plays);
+        if (created.statement.capacity() > maxBytes) {
+            // caching it would evict everything else
+            return created.statement.asReadOnlyBuffer();
+        }
+        synchronized (entries) {
+            final Entry previous = entries.put(key, created);
+            if (previous != null) {
+                bytes -= previous.statement.capacity();
+            }
+            bytes += created.statement.capacity();
+            evict();
+        }
+        return created.statement.asReadOnlyBuffer();
+    }
+
+    private Entry render(Invoice invoice, Map<String, Play> plays) {
+        final Statement statement = new Statement(invoice, plays);
+        final byte[] utf8 = renderer.render(statement).getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer stored;
+        if (offHeap) {
+            stored = ByteBuffer.allocateDirect(utf8.length).put(utf8);
+            stored.flip();
+        }
+        else {
+            stored = ByteBuffer.wrap(utf8);
+        }
+        final List<Performance> performances = invoice.getPerformances();
+        final String[] playIDs = new String[performances.size()];
+        final int[] audiences = new int[performances.size()];
+        final Play[] usedPlays = new Play[performances.size()];
+        for (int i = 0; i < playIDs.length; i++) {
+            playIDs[i] = performances.get(i).getPlayID();
+            audiences[i] = performances.get(i).getAudience();
+            usedPlays[i] = plays.get(playIDs[i]);
+        }
+        return new Entry(invoice.getCustomer(), playIDs, audiences, usedPlays, stored);
+    }
+
+    private void evict() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().statement.capacity();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(long key, Entry entry) {
+        entries.remove(key);
+        bytes -= entry.statement.capacity();
+    }
+
+    /**
+     * Remove every cached statement.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Return the number of cached statements.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Return the total size of the cached statements.
+     *
+     * @return the size in bytes
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * Return the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Return the number of lookups that had to render the statement.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Return the number of cached statements discarded because a play they used had changed.
+     *
+     * @return the invalidation count
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Return the number of cached statements evicted to stay within the limits.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Return the fraction of lookups answered from the cache.
+     *
+     * @return the hit rate, or 0 if there have been no lookups
+     */
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hitCount / total;
+    }
+
+    /**
+     * Reset the hit, miss, invalidation and eviction counts.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Compute the content hash of an invoice.
+     *
+     * @param invoice the invoice
+     * @return a hash of the customer and every performance, in order
+     */
+    static long hash(Invoice invoice) {
+        long result = invoice.getCustomer().hashCode();
+        for (Performance performance : invoice.getPerformances()) {
+            result = (result ^ performance.getPlayID().hashCode()) * HASH_MULTIPLIER;
+            result = (result ^ performance.getAudience()) * HASH_MULTIPLIER;
+        }
+        return result ^ (result >>> (Long.SIZE / 2));
+    }
+
+    /**
+     * One cached statement and the content it was rendered from.
+     */
+    private static final class Entry {
+
+        private final String customer;
+        private final String[] playIDs;
+        private final int[] audiences;
+        private final Play[] plays;
+        private final ByteBuffer statement;
+
+        Entry(String customer, String[] playIDs, int[] audiences, Play[] plays, ByteBuffer statement) {
+            this.customer = customer;
+            this.playIDs = playIDs;
+            this.audiences = audiences;
+            this.plays = plays;
+            this.statement = statement;
+        }
+
+        boolean sameInvoice(Invoice invoice) {
+            final List<Performance> performances = invoice.getPerformances();
+            if (!customer.equals(invoice.getCustomer()) || performances.size() != playIDs.length) {
+                return false;
+            }
+            for (int i = 0; i < playIDs.length; i++) {
+                final Performance performance = performances.get(i);
+                if (audiences[i] != performance.getAudience() || !playIDs[i].equals(performance.getPlayID())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean matches(Invoice invoice, Map<String, Play> catalog) {
+            if (!sameInvoice(invoice)) {
+                return false;
+            }
+            for (int i = 0; i < playIDs.length; i++) {
+                if (catalog.get(playIDs[i]) != plays[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package theater;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Exports the statements of many invoices into a single file or channel.
+ *
+ * <p>Statements are encoded one after another into one direct buffer that is handed to the channel
+ * only when it is full, so every statement is copied once from its rendering buffer into the direct
+ * buffer and once by the channel, with no intermediate strings or byte arrays. A statement larger
+ * than the buffer is written to the channel on its own. Instances are not thread-safe.</p>
+ */
+public class StatementExporter {
+
+    /**
+     * Default size of the output buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, Play> plays;
+    private final StatementWriter writer;
+    private final ByteBuffer buffer;
+
+    /**
+     * Create an exporter writing plain-text statements in UTF-8.
+     *
+     * @param plays the plays for the performances in the invoices
+     */
+    public StatementExporter(Map<String, Play> plays) {
+        this(plays, new StatementWriter(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create an exporter writing through the given statement writer.
+     *
+     * @param plays      the plays for the performances in the invoices
+     * @param writer     the output format and encoding
+     * @param bufferSize the size of the output buffer in bytes
+     * @throws IllegalArgumentException if the buffer size is not positive
+     */
+    public StatementExporter(Map<String, Play> plays, StatementWriter writer, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException(String.format("buffer size must be positive: %d", bufferSize));
+        }
+        this.plays = plays;
+        this.writer = writer;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Export the statements of all invoices to a file, replacing any existing file.
+     *
+     * @param invoices the invoices, exported in iteration order
+     * @param path     the file to write
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if an invoice uses an unknown play or a play type that cannot be priced
+     */
+    public long export(Iterable<Invoice> invoices, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(invoices, channel);
+        }
+    }
+
+    /**
+     * Export the statements of all invoices to a channel.
+     *
+     * @param invoices the invoices, exported in iteration order
+     * @param channel  the channel to write to; it is not closed
+     * @return the number of bytes written
+     * @throws IOException if the channel fails
+     * @throws IllegalArgumentException if an invoice uses an unknown play or a play type that cannot be priced
+     */
+    public long export(Iterable<Invoice> invoices, WritableByteChannel channel) throws IOException {
+        buffer.clear();
+        long result = 0;
+        for (Invoice invoice : invoices) {
+            result += write(new Statement(invoice, plays), channel);
+        }
+        flush(channel);
+        return result;
+    }
+
+    private int write(Statement statement, WritableByteChannel channel) throws IOException {
+        try {
+            return writer.write(statement, buffer);
+        }
+        catch (BufferOverflowException full) {
+            flush(channel);
+        }
+        try {
+            return writer.write(statement, buffer);
+        }
+        catch (BufferOverflowException tooLarge) {
+            return writer.write(statement, channel);
+        }
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
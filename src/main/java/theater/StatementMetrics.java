@@ -0,0 +1,195 @@
+package theater;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * In-process registry of counters and latency histograms for statement generation.
+ *
+ * <p>Recording is off unless the {@code theater.metrics} system property is {@code true} or it is
+ * switched on at runtime, through {@link #setEnabled(boolean)} or JMX. While it is off, the
+ * instrumented code paths only read one flag. Call {@link #register()} to publish the metrics as
+ * the MXBean {@value #OBJECT_NAME}.</p>
+ */
+public final class StatementMetrics implements StatementMetricsMXBean {
+
+    /**
+     * The JMX object name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "theater:type=StatementMetrics";
+
+    private static final StatementMetrics INSTANCE = new StatementMetrics();
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static volatile boolean enabled = Boolean.getBoolean("theater.metrics");
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder performances = new LongAdder();
+    private final LongAdder renderedChars = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LatencyHistogram construction = new LatencyHistogram();
+    private final LatencyHistogram pricing = new LatencyHistogram();
+    private final LatencyHistogram credits = new LatencyHistogram();
+    private final LatencyHistogram totals = new LatencyHistogram();
+    private final LatencyHistogram rendering = new LatencyHistogram();
+    private volatile long startNanos = System.nanoTime();
+
+    private StatementMetrics() {
+
+    }
+
+    /**
+     * Return the process-wide metrics registry.
+     *
+     * @return the registry
+     */
+    public static StatementMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return whether recording is on; the check used by instrumented code.
+     *
+     * @return true if metrics should be recorded
+     */
+    static boolean active() {
+        return enabled;
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, if they are not registered yet.
+     *
+     * @throws JMException if registration fails
+     */
+    public void register() throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(this, name);
+        }
+    }
+
+    void recordStatement(int performanceCount) {
+        statements.increment();
+        performances.add(performanceCount);
+    }
+
+    void recordConstruction(long nanos) {
+        construction.record(nanos);
+    }
+
+    void recordPricing(long nanos) {
+        pricing.record(nanos);
+    }
+
+    void recordCredits(long nanos) {
+        credits.record(nanos);
+    }
+
+    void recordTotals(long nanos) {
+        totals.record(nanos);
+    }
+
+    void recordRendering(int chars, long nanos) {
+        renderedChars.add(chars);
+        rendering.record(nanos);
+    }
+
+    void recordError(String playType) {
+        errors.computeIfAbsent(String.valueOf(playType), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        StatementMetrics.enabled = enabled;
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getPerformanceCount() {
+        return performances.sum();
+    }
+
+    @Override
+    public long getRenderedChars() {
+        return renderedChars.sum();
+    }
+
+    @Override
+    public double getStatementsPerSecond() {
+        return statements.sum() / elapsedSeconds();
+    }
+
+    @Override
+    public double getPerformancesPerSecond() {
+        return performances.sum() / elapsedSeconds();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByPlayType() {
+        final Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    @Override
+    public LatencySnapshot getConstructionLatency() {
+        return construction.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getPricingLatency() {
+        return pricing.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getCreditsLatency() {
+        return credits.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getTotalsLatency() {
+        return totals.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getRenderingLatency() {
+        return rendering.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        statements.reset();
+        performances.reset();
+        renderedChars.reset();
+        errors.clear();
+        construction.reset();
+        pricing.reset();
+        credits.reset();
+        totals.reset();
+        rendering.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(System.nanoTime() - startNanos, 1) / NANOS_PER_SECOND;
+    }
+}
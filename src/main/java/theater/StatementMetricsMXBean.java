@@ -0,0 +1,105 @@
+package theater;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link StatementMetrics}.
+ */
+public interface StatementMetricsMXBean {
+
+    /**
+     * Return whether metrics are being recorded.
+     *
+     * @return true if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Turn recording on or off.
+     *
+     * @param enabled whether to record metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Return the number of statements built.
+     *
+     * @return the statement count
+     */
+    long getStatementCount();
+
+    /**
+     * Return the number of performances in the statements built.
+     *
+     * @return the performance count
+     */
+    long getPerformanceCount();
+
+    /**
+     * Return the number of characters of statement output rendered.
+     *
+     * @return the rendered character count
+     */
+    long getRenderedChars();
+
+    /**
+     * Return the average number of statements built per second since the metrics were last reset.
+     *
+     * @return the statement rate
+     */
+    double getStatementsPerSecond();
+
+    /**
+     * Return the average number of performances per second since the metrics were last reset.
+     *
+     * @return the performance rate
+     */
+    double getPerformancesPerSecond();
+
+    /**
+     * Return the number of pricing errors for each play type.
+     *
+     * @return error counts keyed by play type
+     */
+    Map<String, Long> getErrorsByPlayType();
+
+    /**
+     * Return the latency of building the per-line performance data of statements.
+     *
+     * @return the latency summary
+     */
+    LatencySnapshot getConstructionLatency();
+
+    /**
+     * Return the latency of pricing one performance.
+     *
+     * @return the latency summary
+     */
+    LatencySnapshot getPricingLatency();
+
+    /**
+     * Return the latency of calculating volume credits for one performance.
+     *
+     * @return the latency summary
+     */
+    LatencySnapshot getCreditsLatency();
+
+    /**
+     * Return the latency of computing both totals of a statement, on whichever path prices it.
+     *
+     * @return the latency summary
+     */
+    LatencySnapshot getTotalsLatency();
+
+    /**
+     * Return the latency of rendering statements.
+     *
+     * @return the latency summary
+     */
+    LatencySnapshot getRenderingLatency();
+
+    /**
+     * Discard all recorded metrics.
+     */
+    void reset();
+}
@@ -1,6 +1,5 @@
 package theater;
 
-import java.text.NumberFormat;
 import java.util.Locale;
 import java.util.Map;
 
@@ -11,9 +10,14 @@ import java.util.Map;
  */
 public class StatementPrinter {
 
+    private static final CurrencyFormatter USD = CurrencyFormatter.forLocale(Locale.US);
+    private static final StatementRenderer PLAIN_TEXT = new PlainTextStatementRenderer(USD);
+
     private final Invoice invoice;
     private final Map<String, Play> plays;
-    private final Statement statementdata;
+    private final PlayCatalog catalog;
+    private final StatementRenderer renderer;
+    private Statement statementdata;
 
     /**
      * Create a statement printer for the given invoice and plays.
@@ -22,17 +26,54 @@ public class StatementPrinter {
      * @param plays   the plays for the performances in the invoice
      */
     public StatementPrinter(Invoice invoice, Map<String, Play> plays) {
-        this.statementdata = new Statement(invoice, plays);
+        this(invoice, plays, PLAIN_TEXT);
+    }
+
+    /**
+     * Create a statement printer for the given invoice and plays using the given output format.
+     *
+     * @param invoice  the invoice to print
+     * @param plays    the plays for the performances in the invoice
+     * @param renderer the output format
+     */
+    public StatementPrinter(Invoice invoice, Map<String, Play> plays, StatementRenderer renderer) {
+        this(invoice, plays, null, renderer);
+    }
+
+    /**
+     * Create a statement printer for the given invoice whose plays are resolved through an indexed catalog.
+     *
+     * @param invoice  the invoice to print
+     * @param catalog  the catalog holding the plays for the performances in the invoice
+     * @param renderer the output format
+     */
+    public StatementPrinter(Invoice invoice, PlayCatalog catalog, StatementRenderer renderer) {
+        this(invoice, catalog.asMap(), catalog, renderer);
+    }
+
+    private StatementPrinter(Invoice invoice, Map<String, Play> plays, PlayCatalog catalog,
+                             StatementRenderer renderer) {
         this.invoice = invoice;
         this.plays = plays;
+        this.catalog = catalog;
+        this.renderer = renderer;
     }
 
     /**
-     * Get the underlying statement object.
+     * Get the underlying statement object, creating it on first use.
      *
      * @return the statement
+     * @throws IllegalArgumentException if the invoice uses plays that are not in the catalog
      */
     public Statement getStatementdata() {
+        if (statementdata == null) {
+            if (catalog == null) {
+                statementdata = new Statement(invoice, plays);
+            }
+            else {
+                statementdata = new Statement(invoice, catalog);
+            }
+        }
         return statementdata;
     }
 
@@ -67,12 +108,14 @@ public class StatementPrinter {
     /**
      * Get the total amount by summing over all performances.
      *
-     * @return the total amount
+     * @return the total amount in cents
+     * @throws IllegalArgumentException if a play type is not known
+     * @throws ArithmeticException if the total does not fit in a {@code long}
      */
-    public int getTotalAmount() {
-        int result = 0;
+    public long getTotalAmount() {
+        long result = 0;
         for (Performance performance : getInvoice().getPerformances()) {
-            result += getVolumeCredits(performance);
+            result = Money.add(result, getAmount(performance));
         }
         return result;
     }
@@ -82,10 +125,10 @@ public class StatementPrinter {
      *
      * @return the total volume credits
      */
-    private int getTotalVolumeCredits() {
-        int volumeCredits = 0;
+    public long getTotalVolumeCredits() {
+        long volumeCredits = 0;
         for (Performance performance : getInvoice().getPerformances()) {
-            volumeCredits += getVolumeCredits(performance);
+            volumeCredits = Math.addExact(volumeCredits, getVolumeCredits(performance));
         }
         return volumeCredits;
     }
@@ -97,12 +140,7 @@ public class StatementPrinter {
      * @return the volume credits earned for this performance
      */
     private int getVolumeCredits(Performance performance) {
-        int result = Math.max(performance.getAudience() - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0);
-        // add extra credit for every five comedy attendees
-        if ("comedy".equals(performance.getAudience())) {
-            result += performance.getAudience() / Constants.COMEDY_EXTRA_VOLUME_FACTOR;
-        }
-        return result;
+        return getPlay(performance).getCalculator().volumeCredits(performance.getAudience());
     }
 
     /**
@@ -110,71 +148,34 @@ public class StatementPrinter {
      *
      * @param performance the performance
      * @return the amount owed for this performance
-     * @throws RuntimeException if the play type is not known
+     * @throws IllegalArgumentException if the play type is not known
      */
-    private int getAmount(Performance performance) {
-        int result;
-        switch (getPlay(performance).getType()) {
-            case "tragedy":
-                result = Constants.TRAGEDY_BASE_AMOUNT;
-                if (performance.getAudience() > Constants.TRAGEDY_AUDIENCE_THRESHOLD) {
-                    result +=
-                            Constants.HISTORY_OVER_BASE_CAPACITY_PER_PERSON
-                                    * (performance.getAudience() - Constants.TRAGEDY_AUDIENCE_THRESHOLD);
-                }
-                break;
-            case "comedy":
-                result = Constants.COMEDY_BASE_AMOUNT;
-                if (performance.getAudience() > Constants.COMEDY_AUDIENCE_THRESHOLD) {
-                    result += Constants.COMEDY_OVER_BASE_CAPACITY_AMOUNT
-                            + (Constants.COMEDY_OVER_BASE_CAPACITY_PER_PERSON
-                            * (performance.getAudience() - Constants.COMEDY_AUDIENCE_THRESHOLD));
-                }
-                result += Constants.COMEDY_AMOUNT_PER_AUDIENCE * performance.getAudience();
-                break;
-            default:
-                throw new RuntimeException(
-                        String.format("unknown type: %s", getPlay(performance).getType()));
-        }
-        return result;
+    private long getAmount(Performance performance) {
+        return getPlay(performance).getCalculator().amountFor(performance.getAudience());
     }
 
     /**
-     * Produce the plain-text statement.
+     * Produce the statement in this printer's output format.
      *
      * @return the rendered statement
      */
     public String statement() {
-        return renderPlainText();
-    }
-
-    /**
-     * Render the statement as plain text.
-     *
-     * @return the rendered statement
-     */
-    private String renderPlainText() {
-        final StringBuilder result = new StringBuilder("Statement for "
-                + statementdata.getCustomer() + System.lineSeparator());
-        for (PerformanceData performancedata : statementdata.getPerformances()) {
-            result.append(String.format("  %s: %s (%s seats)%n",
-                    performancedata.getName(),
-                    usd(performancedata.amountFor()),
-                    performancedata.getAudience()));
+        if (!StatementMetrics.active()) {
+            return renderer.render(getStatementdata());
         }
-        result.append(String.format("Amount owed is %s%n", usd(statementdata.totalAmount())));
-        result.append(String.format("You earned %s credits%n", statementdata.volumeCredits()));
-        return result.toString();
+        final long start = System.nanoTime();
+        final String result = renderer.render(getStatementdata());
+        StatementMetrics.get().recordRendering(result.length(), System.nanoTime() - start);
+        return result;
     }
 
     /**
      * Format a total amount as US currency.
      *
-     * @param totalAmount the amount to format
+     * @param totalAmount the amount to format, in cents
      * @return the formatted amount
      */
-    public String usd(int totalAmount) {
-        return NumberFormat.getCurrencyInstance(Locale.US)
-                .format(totalAmount / Constants.PERCENT_FACTOR);
+    public String usd(long totalAmount) {
+        return USD.format(totalAmount);
     }
 }
@@ -0,0 +1,77 @@
+package theater;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Renders statements in one output format.
+ *
+ * <p>A statement is rendered as a header, one line per performance and a footer. Implementations
+ * write each part straight into the caller's sink, so the same renderer can serve a fully
+ * computed {@link Statement} as well as records streamed one at a time.</p>
+ */
+public interface StatementRenderer {
+
+    /**
+     * Write the start of a statement.
+     *
+     * @param out      the sink to write to
+     * @param customer the customer the statement is for
+     * @throws IOException if the sink fails
+     */
+    void header(Appendable out, String customer) throws IOException;
+
+    /**
+     * Write the line for one performance.
+     *
+     * @param out      the sink to write to
+     * @param playName the name of the play performed
+     * @param audience the audience size
+     * @param amount   the amount for the performance in cents
+     * @throws IOException if the sink fails
+     */
+    void line(Appendable out, String playName, int audience, long amount) throws IOException;
+
+    /**
+     * Write the end of a statement.
+     *
+     * @param out           the sink to write to
+     * @param totalAmount   the amount owed in cents
+     * @param volumeCredits the volume credits earned
+     * @throws IOException if the sink fails
+     */
+    void footer(Appendable out, long totalAmount, long volumeCredits) throws IOException;
+
+    /**
+     * Write a complete statement.
+     *
+     * @param out       the sink to write to
+     * @param statement the statement to render
+     * @throws IOException if the sink fails
+     */
+    default void render(Appendable out, Statement statement) throws IOException {
+        header(out, statement.getCustomer());
+        for (PerformanceData performanceData : statement.getPerformances()) {
+            line(out, performanceData.getName(), performanceData.getAudience(), performanceData.amountFor());
+        }
+        footer(out, statement.totalAmount(), statement.volumeCredits());
+    }
+
+    /**
+     * Render a complete statement as a string.
+     *
+     * @param statement the statement to render
+     * @return the rendered statement
+     */
+    default String render(Statement statement) {
+        final StringBuilder result = new StringBuilder();
+        try {
+            render(result, statement);
+        }
+        catch (IOException exception) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(exception);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package theater;
+
+/**
+ * The outcome of rendering the statement for one invoice in a batch: either the statement text
+ * or the error that prevented it from being produced.
+ */
+public final class StatementResult {
+
+    private final Invoice invoice;
+    private final String statement;
+    private final RuntimeException error;
+
+    private StatementResult(Invoice invoice, String statement, RuntimeException error) {
+        this.invoice = invoice;
+        this.statement = statement;
+        this.error = error;
+    }
+
+    /**
+     * Create a successful result.
+     *
+     * @param invoice   the invoice that was rendered
+     * @param statement the rendered statement
+     * @return the result
+     */
+    public static StatementResult success(Invoice invoice, String statement) {
+        return new StatementResult(invoice, statement, null);
+    }
+
+    /**
+     * Create a failed result.
+     *
+     * @param invoice the invoice that could not be rendered
+     * @param error   why it could not be rendered
+     * @return the result
+     */
+    public static StatementResult failure(Invoice invoice, RuntimeException error) {
+        return new StatementResult(invoice, null, error);
+    }
+
+    public Invoice getInvoice() {
+        return invoice;
+    }
+
+    /**
+     * Return whether the statement was rendered.
+     *
+     * @return true if there is a statement, false if there is an error
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Return the rendered statement.
+     *
+     * @return the statement, or null if rendering failed
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * Return the error that prevented rendering.
+     *
+     * @return the error, or null if rendering succeeded
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+}
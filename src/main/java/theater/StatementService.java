@@ -0,0 +1,285 @@
+package theater;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process service that renders statements for online requests in micro-batches on a fixed set of
+ * worker threads.
+ *
+ * <p>Requests wait in one bounded queue. Each worker takes a request, then collects up to
+ * {@code maxBatchSize} requests in total, waiting at most {@code maxBatchDelayNanos} for the batch to
+ * fill, and renders the whole batch against one snapshot of the {@link LiveCatalog} with a single
+ * reused buffer. A short delay trades a little latency for fewer hand-offs when traffic is heavy;
+ * a delay of 0 never waits for a batch to fill. When the queue is full, {@link #submit(Invoice)} fails
+ * fast and {@link #submit(Invoice, long, TimeUnit)} blocks for at most the given time, so callers feel
+ * backpressure instead of the service running out of memory.</p>
+ */
+public final class StatementService implements AutoCloseable {
+
+    /**
+     * Default number of queued requests.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Default largest number of requests rendered together.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int INITIAL_BUFFER_SIZE = 1 << 12;
+
+    private final LiveCatalog catalog;
+    private final StatementRenderer renderer;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final BlockingQueue<Request> queue;
+    private final Thread[] workers;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Create a plain-text service with one worker per processor and the default limits.
+     *
+     * @param catalog the plays, read afresh for every batch
+     */
+    public StatementService(LiveCatalog catalog) {
+        this(catalog, new PlainTextStatementRenderer(), Runtime.getRuntime().availableProcessors(),
+                DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH_SIZE, 0);
+    }
+
+    /**
+     * Create a service and start its workers.
+     *
+     * @param catalog            the plays, read afresh for every batch
+     * @param renderer           the output format
+     * @param workerCount        the number of worker threads
+     * @param queueCapacity      the number of requests that may wait before new ones are refused
+     * @param maxBatchSize       the largest number of requests rendered together
+     * @param maxBatchDelayNanos how long a worker waits for a batch to fill, in nanoseconds
+     * @throws IllegalArgumentException if a count or size is not positive or the delay is negative
+     */
+    public StatementService(LiveCatalog catalog, StatementRenderer renderer, int workerCount, int queueCapacity,
+                            int maxBatchSize, long maxBatchDelayNanos) {
+        if (workerCount <= 0 || queueCapacity <= 0 || maxBatchSize <= 0 || maxBatchDelayNanos < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid service configuration: %d workers, queue %d, batch %d, delay %dns",
+                    workerCount, queueCapacity, maxBatchSize, maxBatchDelayNanos));
+        }
+        this.catalog = catalog;
+        this.renderer = renderer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelayNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, "statement-service-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Request the statement for an invoice, failing at once if the queue is full.
+     *
+     * @param invoice the invoice
+     * @return the future statement; it fails with an {@link IllegalArgumentException} if the invoice
+     *         cannot be priced, or a {@link RejectedExecutionException} if the request was refused
+     */
+    public CompletableFuture<String> submit(Invoice invoice) {
+        final Request request = new Request(invoice);
+        if (!running || !queue.offer(request)) {
+            reject(request);
+        }
+        else {
+            withdrawIfClosed(request);
+        }
+        return request.result;
+    }
+
+    /**
+     * Request the statement for an invoice, waiting for room in the queue if it is full.
+     *
+     * @param invoice the invoice
+     * @param timeout how long to wait for room
+     * @param unit    the unit of {@code timeout}
+     * @return the future statement; it fails with an {@link IllegalArgumentException} if the invoice
+     *         cannot be priced, or a {@link RejectedExecutionException} if the request was refused
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public CompletableFuture<String> submit(Invoice invoice, long timeout, TimeUnit unit) throws InterruptedException {
+        final Request request = new Request(invoice);
+        if (!running || !queue.offer(request, timeout, unit)) {
+            reject(request);
+        }
+        else {
+            withdrawIfClosed(request);
+        }
+        return request.result;
+    }
+
+    private void withdrawIfClosed(Request request) {
+        // the workers may already have stopped, in which case nobody would complete the request
+        if (!running && queue.remove(request)) {
+            reject(request);
+        }
+    }
+
+    private void reject(Request request) {
+        rejected.increment();
+        request.result.completeExceptionally(new RejectedExecutionException("statement queue is full or closed"));
+    }
+
+    private void work() {
+        final List<Request> batch = new ArrayList<>(maxBatchSize);
+        final StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+        try {
+            while (running || !queue.isEmpty()) {
+                final Request first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                render(batch, buffer);
+                batch.clear();
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fill(List<Request> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        final long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize && maxBatchDelayNanos > 0) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            final Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void render(List<Request> batch, StringBuilder buffer) {
+        final PlayCatalog plays = catalog.snapshot().getCatalog();
+        batches.increment();
+        for (Request request : batch) {
+            String text = null;
+            Exception failure = null;
+            try {
+                buffer.setLength(0);
+                renderer.render(buffer, new Statement(request.invoice, plays));
+                text = buffer.toString();
+            }
+            catch (IOException | RuntimeException exception) {
+                failure = exception;
+            }
+            // record before completing, so a caller woken by the future already sees this request counted
+            latency.record(System.nanoTime() - request.submitted);
+            completed.increment();
+            if (failure == null) {
+                request.result.complete(text);
+            }
+            else {
+                request.result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Return the number of requests answered, successfully or not.
+     *
+     * @return the completed count
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Return the number of requests refused because the queue was full or the service closed.
+     *
+     * @return the rejected count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Return the number of batches rendered.
+     *
+     * @return the batch count
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Return the distribution of the time from submitting a request to its completion.
+     *
+     * @return the latency summary
+     */
+    public LatencySnapshot latency() {
+        return latency.snapshot();
+    }
+
+    /**
+     * Reset the latency distribution and the counters.
+     */
+    public void resetStatistics() {
+        latency.reset();
+        completed.reset();
+        rejected.reset();
+        batches.reset();
+    }
+
+    /**
+     * Stop accepting requests, finish the ones already queued and stop the workers.
+     *
+     * <p>If the calling thread is interrupted while waiting for the workers, this returns at once with
+     * the interrupt status set; the workers still finish the queued requests in the background.</p>
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One queued request.
+     */
+    private static final class Request {
+
+        private final Invoice invoice;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Request(Invoice invoice) {
+            this.invoice = invoice;
+        }
+    }
+}
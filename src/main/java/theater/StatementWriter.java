@@ -0,0 +1,244 @@
+package theater;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes rendered statements straight into a {@link Writer}, {@link OutputStream}, {@link ByteBuffer}
+ * or channel instead of returning them as strings.
+ *
+ * <p>Each statement is rendered into a reusable character buffer and encoded once into the target, or
+ * into a reusable byte buffer when the target is a stream or channel. The buffers are taken from a small
+ * pool owned by the writer and returned after every call, so steady-state output allocates no
+ * per-statement strings or byte arrays. Instances are safe to share between threads.</p>
+ */
+public final class StatementWriter {
+
+    /**
+     * Maximum number of idle buffer sets kept for reuse.
+     */
+    static final int MAX_POOLED_BUFFERS = 32;
+
+    /**
+     * Buffers that grew beyond this many characters or bytes are dropped instead of being pooled.
+     */
+    static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final StatementRenderer renderer;
+    private final Charset charset;
+    private final Queue<Buffers> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create a writer producing plain-text statements in UTF-8.
+     */
+    public StatementWriter() {
+        this(new PlainTextStatementRenderer(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create a writer producing statements in the given format and encoding.
+     *
+     * @param renderer the output format
+     * @param charset  the encoding used for byte-oriented targets
+     */
+    public StatementWriter(StatementRenderer renderer, Charset charset) {
+        this.renderer = renderer;
+        this.charset = charset;
+    }
+
+    /**
+     * Return the encoding used for byte-oriented targets.
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Write a statement to a character stream.
+     *
+     * @param statement the statement
+     * @param out       the stream to write to
+     * @throws IOException if the stream fails
+     */
+    public void write(Statement statement, Writer out) throws IOException {
+        final Buffers buffers = acquire();
+        try {
+            final StringBuilder text = buffers.render(statement);
+            out.write(buffers.toChars(text), 0, text.length());
+        }
+        finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Write a statement to a byte stream in this writer's encoding.
+     *
+     * @param statement the statement
+     * @param out       the stream to write to
+     * @throws IOException if the stream fails
+     */
+    public void write(Statement statement, OutputStream out) throws IOException {
+        final Buffers buffers = acquire();
+        try {
+            final ByteBuffer bytes = buffers.encode(buffers.render(statement));
+            out.write(bytes.array(), bytes.arrayOffset(), bytes.remaining());
+        }
+        finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Write a statement to a channel in this writer's encoding.
+     *
+     * @param statement the statement
+     * @param out       the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if the channel fails
+     */
+    public int write(Statement statement, WritableByteChannel out) throws IOException {
+        final Buffers buffers = acquire();
+        try {
+            final ByteBuffer bytes = buffers.encode(buffers.render(statement));
+            final int result = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            return result;
+        }
+        finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Encode a statement into a byte buffer in this writer's encoding.
+     *
+     * <p>If the statement does not fit, nothing is written and the buffer's position is left unchanged.</p>
+     *
+     * @param statement the statement
+     * @param out       the buffer to write to, from its current position
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the statement does not fit in the remaining space
+     */
+    public int write(Statement statement, ByteBuffer out) {
+        final Buffers buffers = acquire();
+        try {
+            final StringBuilder text = buffers.render(statement);
+            final int start = out.position();
+            if (!buffers.encodeInto(text, out)) {
+                out.position(start);
+                throw new BufferOverflowException();
+            }
+            return out.position() - start;
+        }
+        finally {
+            release(buffers);
+        }
+    }
+
+    private Buffers acquire() {
+        final Buffers result = pool.poll();
+        if (result == null) {
+            return new Buffers();
+        }
+        return result;
+    }
+
+    private void release(Buffers buffers) {
+        // best effort: the bound is only approximate under contention
+        if (buffers.retainable() && pool.size() < MAX_POOLED_BUFFERS) {
+            pool.offer(buffers);
+        }
+    }
+
+    /**
+     * One set of reusable buffers, used by a single call at a time.
+     */
+    private final class Buffers {
+
+        private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+        private final CharsetEncoder encoder = charset.newEncoder();
+        private char[] chars = new char[INITIAL_CAPACITY];
+        private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+        StringBuilder render(Statement statement) {
+            text.setLength(0);
+            try {
+                renderer.render(text, statement);
+            }
+            catch (IOException exception) {
+                // StringBuilder never throws
+                throw new UncheckedIOException(exception);
+            }
+            return text;
+        }
+
+        char[] toChars(StringBuilder source) {
+            if (chars.length < source.length()) {
+                chars = new char[source.capacity()];
+            }
+            source.getChars(0, source.length(), chars, 0);
+            return chars;
+        }
+
+        ByteBuffer encode(CharSequence source) {
+            bytes.clear();
+            final int estimate = (int) Math.ceil(source.length() * (double) encoder.maxBytesPerChar());
+            if (bytes.capacity() < estimate) {
+                bytes = ByteBuffer.allocate(estimate);
+            }
+            if (!encodeInto(source, bytes)) {
+                // cannot happen: the buffer holds the worst case
+                throw new IllegalStateException("statement did not fit its encoding buffer");
+            }
+            bytes.flip();
+            return bytes;
+        }
+
+        boolean encodeInto(CharSequence source, ByteBuffer out) {
+            encoder.reset();
+            final CharBuffer in = CharBuffer.wrap(source);
+            try {
+                CoderResult result = encoder.encode(in, out, true);
+                if (result.isUnderflow()) {
+                    result = encoder.flush(out);
+                }
+                if (result.isOverflow()) {
+                    return false;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+            }
+            catch (CharacterCodingException exception) {
+                throw new IllegalArgumentException(
+                        String.format("statement cannot be encoded in %s", charset), exception);
+            }
+            return true;
+        }
+
+        boolean retainable() {
+            return text.capacity() <= MAX_RETAINED_CAPACITY && chars.length <= MAX_RETAINED_CAPACITY
+                    && bytes.capacity() <= MAX_RETAINED_CAPACITY;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package theater;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes plain-text statements straight to an output sink as invoice records arrive,
+ * keeping only the running totals of the current invoice in memory.
+ *
+ * <p>The output is identical to {@link StatementPrinter#statement()} for each invoice
+ * rendered with the same {@link StatementRenderer}.</p>
+ */
+public class StreamingStatementPrinter implements InvoiceHandler {
+
+    private final Map<String, Play> plays;
+    private final Appendable out;
+    private final StatementRenderer renderer;
+
+    private long totalAmount;
+    private long volumeCredits;
+
+    /**
+     * Create a streaming printer writing to the given sink.
+     *
+     * @param plays the plays for the performances in the invoices
+     * @param out   where the statements are written
+     */
+    public StreamingStatementPrinter(Map<String, Play> plays, Appendable out) {
+        this(plays, out, new PlainTextStatementRenderer());
+    }
+
+    /**
+     * Create a streaming printer writing to the given sink in the given output format.
+     *
+     * @param plays    the plays for the performances in the invoices
+     * @param out      where the statements are written
+     * @param renderer the output format
+     */
+    public StreamingStatementPrinter(Map<String, Play> plays, Appendable out, StatementRenderer renderer) {
+        this.plays = plays;
+        this.out = out;
+        this.renderer = renderer;
+    }
+
+    @Override
+    public void startInvoice(String customer) throws IOException {
+        totalAmount = 0;
+        volumeCredits = 0;
+        renderer.header(out, customer);
+    }
+
+    @Override
+    public void performance(String playID, int audience) throws IOException {
+        final Play play = plays.get(playID);
+        if (play == null) {
+            throw new IllegalArgumentException(String.format("unknown play: %s", playID));
+        }
+        final PerformanceData performanceData = new PerformanceData(new Performance(playID, audience), play);
+        final long amount = performanceData.amountFor();
+        totalAmount = Money.add(totalAmount, amount);
+        volumeCredits = Math.addExact(volumeCredits, performanceData.volumeCredits());
+        renderer.line(out, performanceData.getName(), audience, amount);
+    }
+
+    @Override
+    public void endInvoice() throws IOException {
+        renderer.footer(out, totalAmount, volumeCredits);
+    }
+}
@@ -0,0 +1,22 @@
+package theater;
+
+/**
+ * Pricing rules for tragedies.
+ */
+public final class TragedyCalculator implements PerformanceCalculator {
+
+    @Override
+    public long amountFor(int audience) {
+        long result = Constants.TRAGEDY_BASE_AMOUNT;
+        if (audience > Constants.TRAGEDY_AUDIENCE_THRESHOLD) {
+            result += (long) Constants.TRAGEDY_OVER_BASE_CAPACITY_PER_PERSON
+                    * (audience - Constants.TRAGEDY_AUDIENCE_THRESHOLD);
+        }
+        return result;
+    }
+
+    @Override
+    public int volumeCredits(int audience) {
+        return Math.max(audience - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0);
+    }
+}
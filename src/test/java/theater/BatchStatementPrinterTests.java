@@ -0,0 +1,57 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchStatementPrinterTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("cats", new Play("Cats", "musical"));
+        return plays;
+    }
+
+    @Test
+    public void resultsKeepInputOrderAndIsolateFailuresTest() {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String playID = i == 137 ? "cats" : (i % 2 == 0 ? "hamlet" : "henry-v");
+            invoices.add(new Invoice("Customer" + i,
+                    List.of(new Performance(playID, i % 60), new Performance("as-like", 35))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<StatementResult> results = new BatchStatementPrinter(plays, executor, 7).printAll(invoices);
+
+            assertEquals(invoices.size(), results.size());
+            for (int i = 0; i < invoices.size(); i++) {
+                StatementResult result = results.get(i);
+                assertEquals(invoices.get(i), result.getInvoice());
+                if (i == 137) {
+                    assertFalse(result.isSuccess());
+                    assertTrue(result.getError() instanceof IllegalArgumentException);
+                }
+                else {
+                    assertTrue(result.isSuccess());
+                    assertEquals(new StatementPrinter(invoices.get(i), plays).statement(), result.getStatement());
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
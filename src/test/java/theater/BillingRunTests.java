@@ -0,0 +1,184 @@
+package theater;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+
+public class BillingRunTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        return plays;
+    }
+
+    private static List<Invoice> invoices(int count) {
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Performance> performances = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                performances.add(new Performance(j % 2 == 0 ? "hamlet" : "as-like", 15 + 7 * j + i % 11));
+            }
+            invoices.add(new Invoice("Customer " + i, performances));
+        }
+        return invoices;
+    }
+
+    private static String expected(List<Invoice> invoices, Map<String, Play> plays) throws IOException {
+        StringWriter out = new StringWriter();
+        StatementWriter writer = new StatementWriter();
+        for (Invoice invoice : invoices) {
+            writer.write(new Statement(invoice, plays), out);
+        }
+        return out.toString();
+    }
+
+    private static String output(BillingRun run, int shards) throws IOException {
+        StringBuilder result = new StringBuilder();
+        for (int shard = 0; shard < shards; shard++) {
+            result.append(new String(Files.readAllBytes(run.statementFile(shard)), StandardCharsets.UTF_8));
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void fullRunWritesEveryShardTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(23);
+        BillingRun run = new BillingRun(plays, folder.getRoot().toPath(), 5);
+
+        BillingReport report = run.run(invoices);
+        assertTrue(report.isComplete());
+        assertEquals(5, report.getShards().size());
+        assertEquals(23, report.getInvoicesWritten());
+        assertEquals(3, report.getShards().get(4).getInvoices());
+        assertEquals(expected(invoices, plays), output(run, 5));
+
+        BillingReport again = run.run(invoices);
+        assertTrue(again.isComplete());
+        assertEquals(0, again.getInvoicesWritten());
+        for (ShardReport shard : again.getShards()) {
+            assertTrue(shard.isResumed());
+            assertEquals(report.getShards().get(shard.getShard()).getBytes(), shard.getBytes());
+        }
+    }
+
+    @Test
+    public void failedShardIsRetriedOnResumeTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(12);
+        invoices.set(7, new Invoice("Customer 7", Collections.singletonList(new Performance("othello", 40))));
+        Path directory = folder.getRoot().toPath();
+        BillingRun run = new BillingRun(plays, directory, 4);
+
+        BillingReport report = run.run(invoices);
+        assertFalse(report.isComplete());
+        assertEquals(1, report.getFailedShards().size());
+        ShardReport failed = report.getFailedShards().get(0);
+        assertEquals(1, failed.getShard());
+        assertTrue(failed.getError() instanceof IllegalArgumentException);
+        assertFalse(Files.exists(run.statementFile(1)));
+        assertFalse(Files.exists(directory.resolve("statements-000001.txt.tmp")));
+        assertEquals(8, report.getInvoicesWritten());
+
+        plays.put("othello", new Play("Othello", "tragedy"));
+        BillingReport resumed = run.run(invoices);
+        assertTrue(resumed.isComplete());
+        assertEquals(4, resumed.getInvoicesWritten());
+        assertTrue(resumed.getShards().get(0).isResumed());
+        assertFalse(resumed.getShards().get(1).isResumed());
+        assertTrue(resumed.getShards().get(2).isResumed());
+        assertEquals(expected(invoices, plays), output(run, 3));
+    }
+
+    @Test
+    public void tornManifestLineAndMissingFileRerunShardTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(9);
+        Path directory = folder.getRoot().toPath();
+        BillingRun run = new BillingRun(plays, directory, 3);
+        run.run(invoices);
+
+        Path manifest = directory.resolve(BillingRun.MANIFEST);
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        List<String> kept = new ArrayList<>();
+        kept.add(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.startsWith("shard 2 ")) {
+                kept.add(line);
+            }
+        }
+        Files.write(manifest, kept, StandardCharsets.UTF_8);
+        Files.write(manifest, "shard 2 3".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.delete(run.statementFile(0));
+
+        BillingReport resumed = run.run(invoices);
+        assertTrue(resumed.isComplete());
+        assertFalse(resumed.getShards().get(0).isResumed());
+        assertTrue(resumed.getShards().get(1).isResumed());
+        assertFalse(resumed.getShards().get(2).isResumed());
+        assertEquals(6, resumed.getInvoicesWritten());
+        assertEquals(expected(invoices, plays), output(run, 3));
+
+        BillingReport again = run.run(invoices);
+        assertTrue(again.isComplete());
+        assertEquals(0, again.getInvoicesWritten());
+        for (ShardReport shard : again.getShards()) {
+            assertTrue(shard.isResumed());
+        }
+        assertEquals(expected(invoices, plays), output(run, 3));
+    }
+
+    @Test
+    public void tornHeaderStartsAFreshManifestTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(6);
+        Path directory = folder.getRoot().toPath();
+        Files.write(directory.resolve(BillingRun.MANIFEST), "theater-billing".getBytes(StandardCharsets.UTF_8));
+        BillingRun run = new BillingRun(plays, directory, 3);
+
+        BillingReport report = run.run(invoices);
+        assertTrue(report.isComplete());
+        assertEquals(6, report.getInvoicesWritten());
+
+        BillingReport resumed = run.run(invoices);
+        assertEquals(0, resumed.getInvoicesWritten());
+        assertEquals(expected(invoices, plays), output(run, 2));
+    }
+
+    @Test
+    public void manifestOfDifferentRunIsRejectedTest() throws IOException {
+        Map<String, Play> plays = plays();
+        Path directory = folder.getRoot().toPath();
+        new BillingRun(plays, directory, 3).run(invoices(9));
+        try {
+            new BillingRun(plays, directory, 3).run(invoices(10));
+            fail("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException expected) {
+            // the manifest records nine invoices
+        }
+        try {
+            new BillingRun(plays, directory, 4).run(invoices(9));
+            fail("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException expected) {
+            // the manifest records a shard size of three
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package theater;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ColumnarInvoiceTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("arcadia", new Play("Arcadia", "pastoral"));
+        return plays;
+    }
+
+    @Test
+    public void matchesStatementTest() throws IOException {
+        Map<String, Play> plays = plays();
+        String[] ids = plays.keySet().toArray(new String[0]);
+        Random random = new Random(42);
+        List<Performance> performances = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            performances.add(new Performance(ids[random.nextInt(ids.length)], random.nextInt(100)));
+        }
+        Invoice invoice = new Invoice("BigCo", performances);
+
+        Statement statement = new Statement(invoice, plays);
+        ColumnarInvoice columnar = ColumnarInvoice.of(invoice, plays);
+
+        assertEquals(statement.totalAmount(), columnar.totalAmount());
+        assertEquals(statement.volumeCredits(), columnar.volumeCredits());
+        assertEquals(performances.size(), columnar.size());
+        PerformanceData row = columnar.row(17);
+        assertEquals(statement.getPerformances().get(17).getName(), row.getName());
+        assertEquals(statement.getPerformances().get(17).amountFor(), row.amountFor());
+
+        StringBuilder rendered = new StringBuilder();
+        columnar.render(rendered, new PlainTextStatementRenderer());
+        assertEquals(new StatementPrinter(invoice, plays).statement(), rendered.toString());
+    }
+
+    @Test
+    public void mixedCalculatorsMatchPerRowPricingTest() {
+        PlayTypeRegistry cached = new PricingCache(0, 50).cache(PlayTypeRegistry.standard());
+        PerformanceCalculator flat = new PerformanceCalculator() {
+            @Override
+            public long amountFor(int audience) {
+                return 1000L * audience;
+            }
+
+            @Override
+            public int volumeCredits(int audience) {
+                return audience / 10;
+            }
+        };
+        PlayTypeRegistry custom = PlayTypeRegistry.standard();
+        custom.register("musical", flat);
+        Map<String, Play> plays = new LinkedHashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("othello", new Play("Othello", "tragedy"));
+        plays.put("macbeth", new Play("Macbeth", "tragedy", cached));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("cats", new Play("Cats", "musical", custom));
+        String[] ids = plays.keySet().toArray(new String[0]);
+        List<Performance> performances = new ArrayList<>();
+        long amount = 0;
+        long credits = 0;
+        for (int i = 0; i < 1000; i++) {
+            Performance performance = new Performance(ids[(i * 7) % ids.length], (i * 13) % 90);
+            performances.add(performance);
+            PerformanceCalculator calculator = plays.get(performance.getPlayID()).getCalculator();
+            amount += calculator.amountFor(performance.getAudience());
+            credits += calculator.volumeCredits(performance.getAudience());
+        }
+
+        ColumnarInvoice columnar = ColumnarInvoice.of(new Invoice("BigCo", performances), plays);
+        assertEquals(amount, columnar.totalAmount());
+        assertEquals(credits, columnar.volumeCredits());
+        assertEquals(0, ColumnarInvoice.of(new Invoice("Nobody", new ArrayList<>()), plays).totalAmount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPlayTest() {
+        ColumnarInvoice.of(new Invoice("BigCo", List.of(new Performance("cats", 10))), plays());
+    }
+}
@@ -0,0 +1,63 @@
+package theater;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class CurrencyFormatterTests {
+
+    private static String reference(Locale locale, long cents) {
+        return NumberFormat.getCurrencyInstance(locale).format(BigDecimal.valueOf(cents, 2));
+    }
+
+    @Test
+    public void keepsCentsTest() {
+        CurrencyFormatter usd = CurrencyFormatter.forLocale(Locale.US);
+        assertEquals("$1,730.00", usd.format(173000));
+        assertEquals("$1,730.05", usd.format(173005));
+        assertEquals("$0.99", usd.format(99));
+        assertEquals("-$0.99", usd.format(-99));
+    }
+
+    @Test
+    public void matchesNumberFormatAcrossLocalesTest() {
+        long[] amounts = {0, 7, 49, 50, 51, 99, 100, 150, 250, 123456, -123456, -150, -250, 100000000,
+                987654321012L, Long.MAX_VALUE, Long.MIN_VALUE};
+        Locale[] locales = {Locale.US, Locale.UK, Locale.GERMANY, Locale.FRANCE, new Locale("en", "IN"),
+                Locale.JAPAN, Locale.KOREA, new Locale("en", "KW"), new Locale("es", "CL")};
+        for (Locale locale : locales) {
+            CurrencyFormatter formatter = CurrencyFormatter.forLocale(locale);
+            for (long cents : amounts) {
+                assertEquals(locale + " " + cents, reference(locale, cents), formatter.format(cents));
+            }
+        }
+    }
+
+    @Test
+    public void usesCurrencyFractionDigitsTest() {
+        CurrencyFormatter yen = CurrencyFormatter.forLocale(Locale.JAPAN);
+        assertEquals("\uFFE51,730", yen.format(173000));
+        // half-even: 2.50 rounds down, 3.50 rounds up
+        assertEquals("\uFFE52", yen.format(250));
+        assertEquals("\uFFE54", yen.format(350));
+        assertEquals("KWD1,730.050", CurrencyFormatter.forLocale(new Locale("en", "KW")).format(173005));
+    }
+
+    @Test
+    public void indianGroupingIsUniformTest() {
+        // lakh and crore grouping is not supported; amounts are grouped in threes like NumberFormat does
+        assertEquals("\u20B910,000,000.00", CurrencyFormatter.forLocale(new Locale("en", "IN")).format(1000000000));
+    }
+
+    @Test
+    public void appendsIntoCallerBufferTest() {
+        StringBuilder result = new StringBuilder("owed: ");
+        CurrencyFormatter.forLocale(Locale.US).appendTo(result, 65000);
+        assertEquals("owed: $650.00", result.toString());
+    }
+}
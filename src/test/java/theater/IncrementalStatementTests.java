@@ -0,0 +1,84 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class IncrementalStatementTests {
+
+    @Test
+    public void matchesFullRebuildAfterEveryChangeTest() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        String[] ids = {"hamlet", "as-like", "henry-v"};
+
+        IncrementalStatement statement = new IncrementalStatement("BigCo", plays);
+        List<Long> handles = new ArrayList<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 300; step++) {
+            Performance performance = new Performance(ids[random.nextInt(ids.length)], random.nextInt(80));
+            int action = handles.isEmpty() ? 0 : random.nextInt(3);
+            if (action == 0) {
+                handles.add(statement.add(performance));
+            }
+            else if (action == 1) {
+                statement.update(handles.get(random.nextInt(handles.size())), performance);
+            }
+            else {
+                statement.remove(handles.remove(random.nextInt(handles.size())));
+            }
+
+            Invoice invoice = statement.getInvoice();
+            Statement rebuilt = new Statement(invoice, plays);
+            assertEquals(rebuilt.totalAmount(), statement.totalAmount());
+            assertEquals(rebuilt.volumeCredits(), statement.volumeCredits());
+            assertEquals(new StatementPrinter(invoice, plays).statement(), statement.statement());
+        }
+    }
+
+    @Test
+    public void overflowLeavesStatementUnchangedTest() {
+        PlayTypeRegistry registry = new PlayTypeRegistry();
+        registry.register("epic", new PricingRule(0, 0, 0, 0, Integer.MAX_VALUE, 0, 0));
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("ring", new Play("The Ring", "epic", registry));
+        Performance huge = new Performance("ring", Integer.MAX_VALUE);
+
+        IncrementalStatement statement = new IncrementalStatement("BigCo", plays);
+        statement.add(huge);
+        statement.add(huge);
+        long small = statement.add(new Performance("ring", 1));
+        String before = statement.statement();
+        long amount = statement.totalAmount();
+        long credits = statement.volumeCredits();
+        try {
+            statement.add(huge);
+            fail("expected ArithmeticException");
+        }
+        catch (ArithmeticException expected) {
+            // a third huge performance does not fit
+        }
+        try {
+            statement.update(small, huge);
+            fail("expected ArithmeticException");
+        }
+        catch (ArithmeticException expected) {
+            // neither does replacing the small one
+        }
+        assertEquals(3, statement.size());
+        assertEquals(amount, statement.totalAmount());
+        assertEquals(credits, statement.volumeCredits());
+        assertEquals(before, statement.statement());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownHandleTest() {
+        new IncrementalStatement("BigCo", new HashMap<>()).remove(3);
+    }
+}
@@ -0,0 +1,140 @@
+package theater;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class InvoiceAggregatorTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("othello", new Play("Othello", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("arcadia", new Play("Arcadia", "pastoral"));
+        return plays;
+    }
+
+    private static List<Invoice> invoices(Map<String, Play> plays) {
+        String[] ids = plays.keySet().toArray(new String[0]);
+        Random random = new Random(5);
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            List<Performance> performances = new ArrayList<>();
+            for (int j = random.nextInt(5); j > 0; j--) {
+                performances.add(new Performance(ids[random.nextInt(ids.length)], random.nextInt(80)));
+            }
+            invoices.add(new Invoice("Customer " + i % 17, performances));
+        }
+        return invoices;
+    }
+
+    private static String toJson(List<Invoice> invoices) {
+        StringBuilder json = new StringBuilder("[");
+        for (Invoice invoice : invoices) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"customer\":\"").append(invoice.getCustomer()).append("\",\"performances\":[");
+            String separator = "";
+            for (Performance performance : invoice.getPerformances()) {
+                json.append(separator).append("{\"playID\":\"").append(performance.getPlayID())
+                        .append("\",\"audience\":").append(performance.getAudience()).append('}');
+                separator = ",";
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString();
+    }
+
+    @Test
+    public void customerTotalsMatchStatementsTest() {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(plays);
+        Map<String, Long> revenue = new HashMap<>();
+        Map<String, Long> credits = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            Statement statement = new Statement(invoice, plays);
+            revenue.merge(invoice.getCustomer(), statement.totalAmount(), Long::sum);
+            credits.merge(invoice.getCustomer(), statement.volumeCredits(), Long::sum);
+        }
+
+        Aggregate aggregate = new InvoiceAggregator(plays).aggregate(invoices, GroupBy.CUSTOMER);
+
+        assertEquals(revenue.keySet(), aggregate.keys());
+        for (String customer : revenue.keySet()) {
+            assertEquals((long) revenue.get(customer), aggregate.getRevenue(customer));
+            assertEquals((long) credits.get(customer), aggregate.getVolumeCredits(customer));
+        }
+    }
+
+    @Test
+    public void parallelStreamingAndSnapshotAgreeTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(plays);
+        Aggregate sequential = new Aggregate(GroupBy.PLAY_TYPE);
+        for (Invoice invoice : invoices) {
+            sequential.add(invoice, plays);
+        }
+
+        Path file = folder.newFile().toPath();
+        try (InvoiceSnapshotWriter writer = new InvoiceSnapshotWriter(file, 64)) {
+            for (Invoice invoice : invoices) {
+                writer.write(invoice);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            InvoiceAggregator aggregator = new InvoiceAggregator(plays, executor, 7);
+            List<Aggregate> results = List.of(
+                    aggregator.aggregate(invoices, GroupBy.PLAY_TYPE),
+                    aggregator.aggregate(new StringReader(toJson(invoices)), GroupBy.PLAY_TYPE),
+                    aggregator.aggregate(InvoiceSnapshot.open(file), GroupBy.PLAY_TYPE));
+            for (Aggregate result : results) {
+                assertEquals(Set.of("tragedy", "comedy", "history", "pastoral"), result.keys());
+                for (String type : sequential.keys()) {
+                    assertEquals(sequential.getRevenue(type), result.getRevenue(type));
+                    assertEquals(sequential.getVolumeCredits(type), result.getVolumeCredits(type));
+                    assertEquals(sequential.getPerformanceCount(type), result.getPerformanceCount(type));
+                }
+                assertEquals(sequential.topByRevenue(2), result.topByRevenue(2));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void topGroupsAreOrderedTest() {
+        Map<String, Play> plays = plays();
+        Aggregate aggregate = new Aggregate(GroupBy.PLAY_ID);
+        aggregate.add(new Invoice("BigCo", List.of(new Performance("hamlet", 55),
+                new Performance("as-like", 35), new Performance("othello", 40))), plays);
+
+        assertEquals(List.of("hamlet", "as-like"), aggregate.topByRevenue(2));
+        assertEquals(List.of("hamlet", "as-like", "othello"), aggregate.topByVolumeCredits(3));
+        assertEquals(0, aggregate.getRevenue("henry-v"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPlayTest() {
+        new InvoiceAggregator(plays()).aggregate(
+                List.of(new Invoice("BigCo", List.of(new Performance("cats", 10)))), GroupBy.PLAY_ID);
+    }
+}
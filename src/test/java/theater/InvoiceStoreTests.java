@@ -0,0 +1,152 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+
+public class InvoiceStoreTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new LinkedHashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("arcadia", new Play("Arcadia", "pastoral"));
+        return plays;
+    }
+
+    private static List<Invoice> invoices(int count, int customers) {
+        String[] ids = {"hamlet", "as-like", "henry-v", "arcadia"};
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Performance> performances = new ArrayList<>();
+            for (int j = 0; j < i % 6; j++) {
+                performances.add(new Performance(new String(ids[(i + j) % ids.length]), 10 + (i * 7 + j * 13) % 60));
+            }
+            invoices.add(new Invoice("Customer " + i % customers, performances));
+        }
+        return invoices;
+    }
+
+    private static void assertSameInvoice(Invoice expected, Invoice actual) {
+        assertEquals(expected.getCustomer(), actual.getCustomer());
+        assertEquals(expected.getPerformances().size(), actual.getPerformances().size());
+        for (int i = 0; i < expected.getPerformances().size(); i++) {
+            assertEquals(expected.getPerformances().get(i).getPlayID(), actual.getPerformances().get(i).getPlayID());
+            assertEquals(expected.getPerformances().get(i).getAudience(), actual.getPerformances().get(i).getAudience());
+        }
+    }
+
+    private static void assertMatches(List<Invoice> invoices, Map<String, Play> plays, InvoiceStore store) {
+        assertEquals(invoices.size(), store.size());
+        int number = 0;
+        for (Statement statement : store.statements()) {
+            Invoice invoice = invoices.get(number);
+            assertSameInvoice(invoice, store.getInvoice(number));
+            Statement expected = new Statement(invoice, plays);
+            assertEquals(expected.totalAmount(), statement.totalAmount());
+            assertEquals(expected.volumeCredits(), statement.volumeCredits());
+            assertEquals(expected.totalAmount(), store.columnar(number).totalAmount());
+            assertEquals(expected.volumeCredits(), store.columnar(number).volumeCredits());
+            assertEquals(new StatementPrinter(invoice, plays).statement(),
+                    new PlainTextStatementRenderer().render(statement));
+            number++;
+        }
+        assertEquals(invoices.size(), number);
+    }
+
+    @Test
+    public void storeMatchesInvoicesTest() {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(200, 70);
+        PlayCatalog catalog = PlayCatalog.of(plays);
+
+        assertMatches(invoices, plays, InvoiceStore.of(invoices, catalog));
+
+        InvoiceStore.Builder builder = new InvoiceStore.Builder(catalog);
+        for (Invoice invoice : invoices) {
+            builder.add(invoice);
+        }
+        InvoiceStore offHeap = builder.build(true);
+        assertTrue(offHeap.isOffHeap());
+        assertMatches(invoices, plays, offHeap);
+    }
+
+    @Test
+    public void statementTotalsMatchWithMetricsTest() {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = invoices(20, 70);
+        InvoiceStore store = InvoiceStore.of(invoices, PlayCatalog.of(plays));
+        StatementMetrics metrics = StatementMetrics.get();
+        metrics.setEnabled(true);
+        try {
+            for (int i = 0; i < invoices.size(); i++) {
+                Statement expected = new Statement(invoices.get(i), plays);
+                assertEquals(expected.totalAmount(), store.statement(i).totalAmount());
+                assertEquals(expected.volumeCredits(), store.statement(i).volumeCredits());
+            }
+        }
+        finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+        }
+    }
+
+    @Test
+    public void customersAndPlayIDsAreSharedTest() {
+        InvoiceStore store = InvoiceStore.of(invoices(20, 3), PlayCatalog.of(plays()));
+        assertEquals(3, store.getCustomerCount());
+        assertSame(store.getCustomer(1), store.getCustomer(4));
+        // invoices 4 and 8 both start with "hamlet", each from its own String instance
+        assertEquals("hamlet", store.getPlayID(4, 0));
+        assertSame(store.getPlayID(4, 0), store.getPlayID(8, 0));
+        assertEquals(10 + 28 % 60, store.getAudience(4, 0));
+    }
+
+    @Test
+    public void invoicesOfCustomerTest() {
+        List<Invoice> invoices = invoices(5000, 1700);
+        InvoiceStore store = InvoiceStore.of(invoices, PlayCatalog.of(plays()));
+        assertEquals(1700, store.getCustomerCount());
+        for (int customer = 0; customer < 1700; customer++) {
+            int[] numbers = store.invoicesOf("Customer " + customer);
+            int expected = customer;
+            for (int number : numbers) {
+                assertEquals(expected, number);
+                expected += 1700;
+            }
+            assertTrue(expected >= 5000 && expected < 5000 + 1700);
+        }
+        assertEquals(0, store.invoicesOf("Nobody").length);
+    }
+
+    @Test
+    public void emptyStoreTest() {
+        InvoiceStore store = new InvoiceStore.Builder(PlayCatalog.of(plays())).build(true);
+        assertEquals(0, store.size());
+        assertEquals(0, store.invoicesOf("Customer 0").length);
+        assertFalse(store.statements().iterator().hasNext());
+    }
+
+    @Test
+    public void unknownPlayIsRejectedTest() {
+        InvoiceStore.Builder builder = new InvoiceStore.Builder(PlayCatalog.of(plays()));
+        builder.add(invoices(3, 3).get(2));
+        try {
+            builder.add(new Invoice("Customer", Collections.singletonList(new Performance("othello", 40))));
+            fail("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException expected) {
+            // nothing was added
+        }
+        assertEquals(1, builder.build().size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void performanceOutOfRangeTest() {
+        InvoiceStore.of(invoices(3, 3), PlayCatalog.of(plays())).getAudience(2, 2);
+    }
+}
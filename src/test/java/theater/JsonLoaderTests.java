@@ -0,0 +1,125 @@
+package theater;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class JsonLoaderTests {
+
+    private static Reader openResource(String path) {
+        return new InputStreamReader(Objects.requireNonNull(JsonLoaderTests.class
+                .getClassLoader()
+                .getResourceAsStream(path)), StandardCharsets.UTF_8);
+    }
+
+    private static String loadString(String path) {
+        try (Reader reader = openResource(path)) {
+            StringBuilder result = new StringBuilder();
+            char[] buffer = new char[1024];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                result.append(buffer, 0, read);
+            }
+            return result.toString();
+        }
+        catch (IOException exception) {
+            fail("resource file could not be loaded prior to test executing");
+        }
+        return "";
+    }
+
+    @Test
+    public void loadedStatementsMatchExamplesTest() throws IOException {
+        String[][] examples = {
+                {"plays.json", "invoices.json", "ExampleStatement.txt"},
+                {"new_plays.json", "new_invoices.json", "ExampleStatementWithNewPlays.txt"},
+        };
+        for (String[] example : examples) {
+            Map<String, Play> plays = JsonLoader.readPlays(openResource(example[0]));
+            List<Invoice> invoices = JsonLoader.readInvoices(openResource(example[1]), plays);
+
+            assertEquals(1, invoices.size());
+            assertEquals(loadString(example[2]).replace("\r\n", "\n"),
+                    new StatementPrinter(invoices.get(0), plays).statement());
+        }
+    }
+
+    @Test
+    public void readsFromByteChannelsTest() throws IOException {
+        Map<String, Play> plays = JsonLoader.readPlays(Channels.newChannel(
+                JsonLoaderTests.class.getClassLoader().getResourceAsStream("plays.json")));
+        List<Invoice> invoices = JsonLoader.readInvoices(Channels.newChannel(
+                JsonLoaderTests.class.getClassLoader().getResourceAsStream("invoices.json")), plays);
+
+        assertEquals(List.of("hamlet", "as-like", "othello"), new ArrayList<>(plays.keySet()));
+        assertEquals("As You Like It", plays.get("as-like").getName());
+        assertEquals("BigCo", invoices.get(0).getCustomer());
+        assertEquals(40, invoices.get(0).getPerformances().get(2).getAudience());
+    }
+
+    @Test
+    public void catalogHandlesAreResolvedWhileLoadingTest() throws IOException {
+        Map<String, Play> plays;
+        try (Reader in = openResource("plays.json")) {
+            plays = JsonLoader.readPlays(in);
+        }
+        PlayCatalog catalog = PlayCatalog.of(plays);
+        List<ColumnarInvoice> invoices;
+        try (Reader in = openResource("invoices.json")) {
+            invoices = JsonLoader.readInvoices(in, catalog);
+        }
+        Invoice source;
+        try (Reader in = openResource("invoices.json")) {
+            source = JsonLoader.readInvoices(in, plays).get(0);
+        }
+
+        ColumnarInvoice invoice = invoices.get(0);
+        assertEquals("BigCo", invoice.getCustomer());
+        assertEquals(source.getPerformances().size(), invoice.size());
+        for (int i = 0; i < invoice.size(); i++) {
+            Performance performance = source.getPerformances().get(i);
+            assertSame(plays.get(performance.getPlayID()), invoice.getPlay(i));
+            assertEquals(performance.getAudience(), invoice.getAudience(i));
+        }
+        StringBuilder statement = new StringBuilder();
+        invoice.render(statement, new PlainTextStatementRenderer());
+        assertEquals(loadString("ExampleStatement.txt").replace("\r\n", "\n"), statement.toString());
+        try {
+            JsonLoader.readInvoices(new StringReader("[{\"customer\": \"BigCo\", \"performances\": "
+                    + "[{\"playID\": \"cats\", \"audience\": 9}]}]"), catalog);
+            fail("expected the unknown play to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("cats"));
+        }
+    }
+
+    @Test
+    public void unknownPlayIsRejectedWhileLoadingTest() throws IOException {
+        Map<String, Play> plays = JsonLoader.readPlays(new StringReader("{\"hamlet\": {\"name\": \"Hamlet\", \"type\": \"tragedy\"}}"));
+        try {
+            JsonLoader.readInvoices(new StringReader("[{\"customer\": \"BigCo\", \"performances\": "
+                    + "[{\"playID\": \"hamlet\", \"audience\": 5}, {\"playID\": \"cats\", \"audience\": 9}]}]"), plays);
+            fail("expected the unknown play to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("cats"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void playWithoutTypeIsRejectedTest() throws IOException {
+        JsonLoader.readPlays(new StringReader("{\"hamlet\": {\"name\": \"Hamlet\"}}"));
+    }
+}
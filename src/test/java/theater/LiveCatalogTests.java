@@ -0,0 +1,107 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class LiveCatalogTests {
+
+    private static Map<String, Play> catalogOf(String type, int size) {
+        Map<String, Play> plays = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            plays.put("play" + i, new Play("Play " + i, type));
+        }
+        return plays;
+    }
+
+    @Test
+    public void pinnedStatementIgnoresLaterUpdatesTest() {
+        LiveCatalog catalog = new LiveCatalog(Map.of("hamlet", new Play("Hamlet", "tragedy")));
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("hamlet", 55)));
+        Statement pinned = catalog.statement(invoice);
+
+        LiveCatalog.Snapshot updated = catalog.put("hamlet", new Play("Hamlet", "history"));
+        catalog.remove("hamlet");
+
+        assertEquals(1, updated.getVersion());
+        assertEquals(2, catalog.snapshot().getVersion());
+        assertEquals(65000, pinned.totalAmount());
+        assertEquals(-1, catalog.snapshot().getCatalog().handleOf("hamlet"));
+        assertEquals(55000, new Statement(invoice, updated.getCatalog()).totalAmount());
+    }
+
+    @Test
+    public void updatesKeepHandlesOfUnchangedPlaysTest() {
+        LiveCatalog catalog = new LiveCatalog(catalogOf("tragedy", 3));
+        int handle = catalog.snapshot().getCatalog().handleOf("play1");
+
+        catalog.update(Map.of("play9", new Play("Play 9", "comedy")), List.of());
+
+        assertEquals(handle, catalog.snapshot().getCatalog().handleOf("play1"));
+        assertEquals(4, catalog.snapshot().getCatalog().size());
+    }
+
+    @Test
+    public void concurrentReadersSeeConsistentVersionsTest() throws Exception {
+        int size = 50;
+        Map<String, Play> tragedies = catalogOf("tragedy", size);
+        Map<String, Play> histories = catalogOf("history", size);
+        List<Performance> performances = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            performances.add(new Performance("play" + i, 40));
+        }
+        Invoice invoice = new Invoice("BigCo", performances);
+        long tragedyTotal = new Statement(invoice, tragedies).totalAmount();
+        long historyTotal = new Statement(invoice, histories).totalAmount();
+
+        LiveCatalog catalog = new LiveCatalog(tragedies);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        long total = catalog.statement(invoice).totalAmount();
+                        assertTrue(total == tragedyTotal || total == historyTotal);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                final boolean tragic = w == 0;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        catalog.replace(tragic ? tragedies : histories);
+                        catalog.put("extra" + (tragic ? "t" : "h") + i, new Play("Extra", "comedy"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2000, catalog.snapshot().getVersion());
+        assertFalse(catalog.snapshot().getCatalog().size() < size);
+    }
+}
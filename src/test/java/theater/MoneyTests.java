@@ -0,0 +1,28 @@
+package theater;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class MoneyTests {
+
+    @Test
+    public void exactArithmeticTest() {
+        assertEquals(3_000_000_000L, Money.add(Integer.MAX_VALUE, 852_516_353L));
+        assertEquals(-4_611_686_014_132_420_609L, Money.multiply(Integer.MAX_VALUE, Integer.MIN_VALUE + 1));
+        assertEquals(12345, Money.units(1_234_567));
+        assertEquals(67, Money.cents(1_234_567));
+        assertEquals(-67, Money.cents(-1_234_567));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void addOverflowTest() {
+        Money.add(Long.MAX_VALUE, 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void multiplyOverflowTest() {
+        Money.multiply(Long.MAX_VALUE / 2, 3);
+    }
+}
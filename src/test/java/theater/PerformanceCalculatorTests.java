@@ -0,0 +1,246 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class PerformanceCalculatorTests {
+
+    /**
+     * Prices worked out by hand from the published tariffs, as fixed points that do not depend on the old
+     * path: type, audience, amount in cents, credits.
+     */
+    private static final Object[][] EXPECTED = {
+        {"tragedy", 0, 40000L, 0},
+        {"tragedy", 30, 40000L, 0},
+        {"tragedy", 31, 41000L, 1},
+        {"tragedy", 55, 65000L, 25},
+        {"tragedy", Integer.MAX_VALUE, 2147483657000L, 2147483617},
+        {"comedy", 0, 30000L, 0},
+        {"comedy", 20, 36000L, 4},
+        {"comedy", 21, 46800L, 4},
+        {"comedy", 35, 58000L, 12},
+        {"history", 0, 20000L, 0},
+        {"history", 20, 20000L, 0},
+        {"history", 40, 40000L, 20},
+        {"pastoral", 0, 40000L, 0},
+        {"pastoral", 20, 40000L, 10},
+        {"pastoral", 21, 42500L, 11},
+        {"pastoral", 40, 90000L, 40},
+    };
+
+    private static final String[] TYPES = {"tragedy", "comedy", "history", "pastoral"};
+
+    /**
+     * The old path: the string switch that {@code PerformanceData} ran on every call before the calculators,
+     * extended to history and pastoral and computed in {@code long} so it cannot overflow. The baseline
+     * tragedy branch read {@code HISTORY_OVER_BASE_CAPACITY_PER_PERSON}, which has the same value as the
+     * tragedy tariff used here.
+     */
+    private static long referenceAmount(String type, int audience) {
+        long result;
+        switch (type) {
+            case "tragedy":
+                result = Constants.TRAGEDY_BASE_AMOUNT;
+                if (audience > Constants.TRAGEDY_AUDIENCE_THRESHOLD) {
+                    result += (long) Constants.TRAGEDY_OVER_BASE_CAPACITY_PER_PERSON
+                            * (audience - Constants.TRAGEDY_AUDIENCE_THRESHOLD);
+                }
+                break;
+            case "comedy":
+                result = Constants.COMEDY_BASE_AMOUNT;
+                if (audience > Constants.COMEDY_AUDIENCE_THRESHOLD) {
+                    result += Constants.COMEDY_OVER_BASE_CAPACITY_AMOUNT
+                            + (long) Constants.COMEDY_OVER_BASE_CAPACITY_PER_PERSON
+                            * (audience - Constants.COMEDY_AUDIENCE_THRESHOLD);
+                }
+                result += (long) Constants.COMEDY_AMOUNT_PER_AUDIENCE * audience;
+                break;
+            case "history":
+                result = Constants.HISTORY_BASE_AMOUNT;
+                if (audience > Constants.HISTORY_AUDIENCE_THRESHOLD) {
+                    result += (long) Constants.HISTORY_OVER_BASE_CAPACITY_PER_PERSON
+                            * (audience - Constants.HISTORY_AUDIENCE_THRESHOLD);
+                }
+                break;
+            case "pastoral":
+                result = Constants.PASTORAL_BASE_AMOUNT;
+                if (audience > Constants.PASTORAL_AUDIENCE_THRESHOLD) {
+                    result += (long) Constants.PASTORAL_OVER_BASE_CAPACITY_PER_PERSON
+                            * (audience - Constants.PASTORAL_AUDIENCE_THRESHOLD);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("unknown type: %s", type));
+        }
+        return result;
+    }
+
+    /**
+     * The old path for credits, with the comedy check made against the type rather than the audience.
+     */
+    private static long referenceCredits(String type, int audience) {
+        long result;
+        switch (type) {
+            case "history":
+                result = Math.max(audience - Constants.HISTORY_VOLUME_CREDIT_THRESHOLD, 0);
+                break;
+            case "pastoral":
+                result = Math.max(audience - Constants.PASTORAL_VOLUME_CREDIT_THRESHOLD, 0);
+                result += audience / Constants.PASTORAL_EXTRA_VOLUME_FACTOR;
+                break;
+            default:
+                result = Math.max(audience - Constants.BASE_VOLUME_CREDIT_THRESHOLD, 0);
+                if ("comedy".equals(type)) {
+                    result += audience / Constants.COMEDY_EXTRA_VOLUME_FACTOR;
+                }
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Audiences on and either side of every threshold and extra-credit step of every type, plus a few
+     * large audiences up to {@link Integer#MAX_VALUE}.
+     */
+    private static int[] audiences() {
+        final int[] thresholds = {
+            Constants.BASE_VOLUME_CREDIT_THRESHOLD,
+            Constants.COMEDY_AUDIENCE_THRESHOLD,
+            Constants.TRAGEDY_AUDIENCE_THRESHOLD,
+            Constants.HISTORY_AUDIENCE_THRESHOLD,
+            Constants.HISTORY_VOLUME_CREDIT_THRESHOLD,
+            Constants.PASTORAL_AUDIENCE_THRESHOLD,
+            Constants.PASTORAL_VOLUME_CREDIT_THRESHOLD,
+        };
+        final int[] steps = {Constants.COMEDY_EXTRA_VOLUME_FACTOR, Constants.PASTORAL_EXTRA_VOLUME_FACTOR};
+        Set<Integer> result = new TreeSet<>();
+        for (int threshold : thresholds) {
+            for (int audience = Math.max(threshold - 2, 0); audience <= threshold + 2; audience++) {
+                result.add(audience);
+            }
+        }
+        for (int step : steps) {
+            for (int multiple = 0; multiple <= 10 * step; multiple += step) {
+                result.add(multiple);
+                result.add(multiple + 1);
+                result.add(Math.max(multiple - 1, 0));
+            }
+        }
+        Collections.addAll(result, 0, 1, 100, 1_000, 65_535, 1_000_000,
+                Integer.MAX_VALUE / 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void calculatorsMatchOldPathTest() {
+        for (String type : TYPES) {
+            Play play = new Play(type + " play", type);
+            for (int audience : audiences()) {
+                String message = type + " " + audience;
+                assertEquals(message, referenceAmount(type, audience), play.getCalculator().amountFor(audience));
+                PerformanceData data = new PerformanceData(new Performance(type, audience), play);
+                assertEquals(message, referenceAmount(type, audience), data.amountFor());
+
+                long credits = referenceCredits(type, audience);
+                if (credits <= Integer.MAX_VALUE) {
+                    assertEquals(message, credits, play.getCalculator().volumeCredits(audience));
+                    assertEquals(message, credits, data.volumeCredits());
+                }
+                else {
+                    try {
+                        play.getCalculator().volumeCredits(audience);
+                        fail("expected ArithmeticException for " + message);
+                    }
+                    catch (ArithmeticException expected) {
+                        // the old path would have wrapped around
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void statementTotalsMatchOldPathTest() {
+        Map<String, Play> plays = new HashMap<>();
+        for (String type : TYPES) {
+            plays.put(type, new Play(type + " play", type));
+        }
+        List<Performance> performances = new ArrayList<>();
+        long amount = 0;
+        long credits = 0;
+        for (int i = 0; i < 400; i++) {
+            String type = TYPES[i % TYPES.length];
+            int audience = (i * 37) % 150;
+            performances.add(new Performance(type, audience));
+            amount += referenceAmount(type, audience);
+            credits += referenceCredits(type, audience);
+        }
+        Invoice invoice = new Invoice("Customer", performances);
+
+        Statement statement = new Statement(invoice, plays);
+        assertEquals(amount, statement.totalAmount());
+        assertEquals(credits, statement.volumeCredits());
+
+        StatementPrinter printer = new StatementPrinter(invoice, plays);
+        assertEquals(amount, printer.getTotalAmount());
+        assertEquals(credits, printer.getTotalVolumeCredits());
+    }
+
+    @Test
+    public void calculatorsMatchExpectedPricesTest() {
+        for (Object[] row : EXPECTED) {
+            String type = (String) row[0];
+            int audience = (Integer) row[1];
+            Play play = new Play(type + " play", type);
+            String message = type + " " + audience;
+            assertEquals(message, row[2], play.getCalculator().amountFor(audience));
+            assertEquals(message, row[3], play.getCalculator().volumeCredits(audience));
+
+            PerformanceData data = new PerformanceData(new Performance(type, audience), play);
+            assertEquals(message, row[2], data.amountFor());
+            assertEquals(message, row[3], data.volumeCredits());
+        }
+    }
+
+    @Test
+    public void statementTotalsMatchExpectedPricesTest() {
+        Map<String, Play> plays = new HashMap<>();
+        List<Performance> performances = new ArrayList<>();
+        long amount = 0;
+        long credits = 0;
+        for (Object[] row : EXPECTED) {
+            String type = (String) row[0];
+            plays.put(type, new Play(type + " play", type));
+            performances.add(new Performance(type, (Integer) row[1]));
+            amount += (Long) row[2];
+            credits += (Integer) row[3];
+        }
+        Invoice invoice = new Invoice("Customer", performances);
+
+        Statement statement = new Statement(invoice, plays);
+        assertEquals(amount, statement.totalAmount());
+        assertEquals(credits, statement.volumeCredits());
+
+        StatementPrinter printer = new StatementPrinter(invoice, plays);
+        assertEquals(amount, printer.getTotalAmount());
+        assertEquals(credits, printer.getTotalVolumeCredits());
+    }
+
+    @Test
+    public void creditsBeyondIntRangeFailTest() {
+        for (String type : new String[] {"comedy", "pastoral"}) {
+            try {
+                new Play(type + " play", type).getCalculator().volumeCredits(Integer.MAX_VALUE);
+                fail("expected ArithmeticException for " + type);
+            }
+            catch (ArithmeticException expected) {
+                // the extra credits push the total past Integer.MAX_VALUE
+            }
+        }
+    }
+}
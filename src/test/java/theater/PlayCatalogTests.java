@@ -0,0 +1,80 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class PlayCatalogTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new LinkedHashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("othello", new Play("Othello", "tragedy"));
+        return plays;
+    }
+
+    @Test
+    public void catalogStatementMatchesMapStatementTest() {
+        Map<String, Play> plays = plays();
+        PlayCatalog catalog = PlayCatalog.of(plays);
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("hamlet", 55),
+                new Performance("as-like", 35), new Performance("othello", 40)));
+
+        assertEquals(new StatementPrinter(invoice, plays).statement(),
+                new StatementPrinter(invoice, catalog, new PlainTextStatementRenderer()).statement());
+        assertEquals(new Statement(invoice, plays).totalAmount(), catalog.bind(invoice).totalAmount());
+        assertEquals(1, catalog.handleOf("as-like"));
+        assertEquals("Othello", catalog.getPlay(catalog.handleOf("othello")).getName());
+        assertEquals(plays, catalog.asMap());
+    }
+
+    @Test
+    public void resolveReadsTheCurrentPerformancesTest() {
+        Map<String, Play> plays = plays();
+        plays.put("henry", new Play("Henry V", "history"));
+        PlayCatalog catalog = PlayCatalog.of(plays);
+        List<Performance> performances = new ArrayList<>(List.of(new Performance("othello", 40),
+                new Performance("hamlet", 55)));
+        Invoice invoice = new Invoice("BigCo", performances);
+
+        int[] handles = catalog.resolve(invoice);
+        assertArrayEquals(new int[] {2, 0}, handles);
+        handles[0] = 1;
+        assertArrayEquals(new int[] {2, 0}, catalog.resolve(invoice));
+
+        performances.set(0, new Performance("henry", 55));
+        assertEquals(new Statement(invoice, plays).totalAmount(), new Statement(invoice, catalog).totalAmount());
+
+        performances.set(0, new Performance("cats", 10));
+        try {
+            catalog.resolve(invoice);
+            fail("expected the unknown play to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("cats"));
+        }
+    }
+
+    @Test
+    public void missingPlaysAreReportedUpFrontTest() {
+        PlayCatalog catalog = PlayCatalog.of(plays());
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("cats", 10),
+                new Performance("hamlet", 55), new Performance("evita", 20), new Performance("cats", 12)));
+
+        assertEquals(List.of("cats", "evita"), catalog.missingPlayIDs(invoice));
+        try {
+            new Statement(invoice, catalog);
+            fail("expected the missing plays to be reported");
+        }
+        catch (IllegalArgumentException exception) {
+            assertTrue(exception.getMessage().contains("[cats, evita]"));
+        }
+    }
+}
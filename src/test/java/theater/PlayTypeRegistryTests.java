@@ -0,0 +1,31 @@
+package theater;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class PlayTypeRegistryTests {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownTypeFailsWhenPricedTest() {
+        Play play = new Play("Cats", "musical");
+        new PerformanceData(new Performance("cats", 40), play).amountFor();
+    }
+
+    @Test
+    public void registeredTypeIsBoundAtCreationTest() {
+        PlayTypeRegistry registry = PlayTypeRegistry.standard();
+        assertFalse(registry.isRegistered("musical"));
+        registry.register("musical", new ComedyCalculator());
+
+        Play musical = new Play("Cats", "musical", registry);
+        Play comedy = new Play("As You Like It", "comedy", registry);
+        PerformanceData expected = new PerformanceData(new Performance("as-like", 35), comedy);
+        PerformanceData actual = new PerformanceData(new Performance("cats", 35), musical);
+
+        assertEquals(expected.amountFor(), actual.amountFor());
+        assertEquals(expected.volumeCredits(), actual.volumeCredits());
+    }
+}
@@ -0,0 +1,53 @@
+package theater;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class PricingCacheTests {
+
+    @Test
+    public void cachedPricingMatchesUncachedTest() {
+        PlayTypeRegistry standard = PlayTypeRegistry.standard();
+        PricingCache cache = new PricingCache(0, 200, true);
+        PlayTypeRegistry cached = cache.cache(standard);
+
+        for (String type : standard.types()) {
+            Play plain = new Play("Play", type, standard);
+            Play memoized = new Play("Play", type, cached);
+            for (int audience = -5; audience <= 300; audience++) {
+                assertEquals(type + " " + audience,
+                        plain.getCalculator().amountFor(audience), memoized.getCalculator().amountFor(audience));
+                assertEquals(type + " " + audience,
+                        plain.getCalculator().volumeCredits(audience), memoized.getCalculator().volumeCredits(audience));
+            }
+        }
+        // 201 of the 306 audience sizes per type are in range, looked up twice each
+        assertEquals(standard.types().size() * 201 * 2, cache.getHits());
+        assertEquals(standard.types().size() * 105 * 2, cache.getMisses());
+    }
+
+    @Test
+    public void statisticsAreOffByDefaultTest() {
+        PricingCache cache = new PricingCache(0, 200);
+        PerformanceCalculator calculator = cache.cache(new TragedyCalculator());
+        assertEquals(new TragedyCalculator().amountFor(50), calculator.amountFor(50));
+        assertEquals(new TragedyCalculator().amountFor(500), calculator.amountFor(500));
+        assertFalse(cache.isStatisticsEnabled());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownTypeStillFailsTest() {
+        new Play("Cats", "musical", new PricingCache(0, 100).cache(PlayTypeRegistry.standard()))
+                .getCalculator().amountFor(40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOversizedRangeTest() {
+        new PricingCache(0, PricingCache.MAX_TABLE_SIZE);
+    }
+}
@@ -0,0 +1,74 @@
+package theater;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+public class PricingRulesTests {
+
+    @Test
+    public void standardRulesMatchCalculatorsTest() {
+        PricingRules rules = PricingRules.standard();
+        PlayTypeRegistry handWritten = PlayTypeRegistry.standard();
+
+        assertEquals(handWritten.types(), rules.types());
+        for (String type : rules.types()) {
+            for (int audience = 0; audience <= 500; audience++) {
+                assertEquals(type + " " + audience, handWritten.lookup(type).amountFor(audience),
+                        rules.rule(type).amountFor(audience));
+                assertEquals(type + " " + audience, handWritten.lookup(type).volumeCredits(audience),
+                        rules.rule(type).volumeCredits(audience));
+            }
+        }
+    }
+
+    @Test
+    public void loadsCustomRulesTest() throws IOException {
+        PricingRules rules = PricingRules.load(new StringReader(
+                "musical.baseAmount=50000\nmusical.perAudience=100\nmusical.extraCreditDivisor=10\n"));
+
+        assertEquals(Set.of("musical"), rules.types());
+        assertEquals(50000 + 100 * 45, rules.rule("musical").amountFor(45));
+        assertEquals(45 + 4, rules.rule("musical").volumeCredits(45));
+        assertNull(rules.rule("tragedy"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownParameterTest() throws IOException {
+        PricingRules.load(new StringReader("tragedy.baseAmount=1\ntragedy.baseAmmount=2\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingBaseAmountTest() throws IOException {
+        PricingRules.load(new StringReader("tragedy.audienceThreshold=30\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidValueTest() throws IOException {
+        PricingRules.load(new StringReader("tragedy.baseAmount=lots\n"));
+    }
+
+    @Test
+    public void swapLeavesBoundPlaysUnchangedTest() throws IOException {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("hamlet", 55)));
+        PricingRules standard = PricingRules.standard();
+        LivePricing pricing = new LivePricing(standard);
+        Map<String, Play> inFlight = pricing.bind(plays);
+
+        PricingRules previous = pricing.swap(PricingRules.load(new StringReader("tragedy.baseAmount=1000\n")));
+
+        assertSame(standard, previous);
+        assertEquals(65000, new Statement(invoice, inFlight).totalAmount());
+        assertEquals(1000, new Statement(invoice, pricing.bind(plays)).totalAmount());
+        assertEquals("Hamlet", pricing.bind(plays).get("hamlet").getName());
+    }
+}
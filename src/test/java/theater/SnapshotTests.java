@@ -0,0 +1,92 @@
+package theater;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class SnapshotTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new LinkedHashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("arcadia", new Play("Arcadia été", "pastoral"));
+        return plays;
+    }
+
+    private static List<Invoice> invoices(Map<String, Play> plays) {
+        String[] ids = plays.keySet().toArray(new String[0]);
+        Random random = new Random(11);
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            List<Performance> performances = new ArrayList<>();
+            for (int j = random.nextInt(6); j > 0; j--) {
+                performances.add(new Performance(ids[random.nextInt(ids.length)], random.nextInt(90)));
+            }
+            invoices.add(new Invoice("Customer " + i, performances));
+        }
+        return invoices;
+    }
+
+    @Test
+    public void catalogRoundTripTest() throws IOException {
+        for (int segmentSize : new int[] {64, SnapshotFile.DEFAULT_SEGMENT_SIZE}) {
+            Map<String, Play> plays = plays();
+            Path file = folder.newFile().toPath();
+            CatalogSnapshot.write(file, plays, segmentSize);
+
+            Map<String, Play> loaded = CatalogSnapshot.read(file);
+            assertEquals(plays.keySet(), loaded.keySet());
+            for (String id : plays.keySet()) {
+                assertEquals(plays.get(id).getName(), loaded.get(id).getName());
+                assertEquals(plays.get(id).getType(), loaded.get(id).getType());
+            }
+        }
+    }
+
+    @Test
+    public void invoiceRoundTripTest() throws IOException {
+        for (int segmentSize : new int[] {64, SnapshotFile.DEFAULT_SEGMENT_SIZE}) {
+            Map<String, Play> plays = plays();
+            List<Invoice> invoices = invoices(plays);
+            Path file = folder.newFile().toPath();
+            try (InvoiceSnapshotWriter writer = new InvoiceSnapshotWriter(file, segmentSize)) {
+                for (Invoice invoice : invoices) {
+                    writer.write(invoice);
+                }
+            }
+
+            InvoiceSnapshot snapshot = InvoiceSnapshot.open(file);
+            assertEquals(invoices.size(), snapshot.size());
+            for (int i = 0; i < invoices.size(); i++) {
+                Invoice expected = invoices.get(i);
+                assertEquals(expected.getCustomer(), snapshot.getCustomer(i));
+                assertEquals(expected.getPerformances().size(), snapshot.getPerformanceCount(i));
+                for (int j = 0; j < expected.getPerformances().size(); j++) {
+                    assertEquals(expected.getPerformances().get(j).getPlayID(), snapshot.getPlayID(i, j));
+                    assertEquals(expected.getPerformances().get(j).getAudience(), snapshot.getAudience(i, j));
+                }
+                assertEquals(new StatementPrinter(expected, plays).statement(),
+                        new StatementPrinter(snapshot.getInvoice(i), plays).statement());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongKindTest() throws IOException {
+        Path file = folder.newFile().toPath();
+        CatalogSnapshot.write(file, plays());
+        InvoiceSnapshot.open(file);
+    }
+}
@@ -0,0 +1,97 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class StatementCacheTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("othello", new Play("Othello", "tragedy"));
+        return plays;
+    }
+
+    private static Invoice invoice(String customer, String... playIDs) {
+        List<Performance> performances = new ArrayList<>();
+        for (String playID : playIDs) {
+            performances.add(new Performance(playID, 42));
+        }
+        return new Invoice(customer, performances);
+    }
+
+    @Test
+    public void repeatedInvoiceIsServedFromCacheTest() {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            Map<String, Play> plays = plays();
+            StatementCache cache = new StatementCache(new PlainTextStatementRenderer(), 100, 1 << 20, offHeap);
+            Invoice invoice = invoice("BigCo", "hamlet", "as-like");
+            String expected = new StatementPrinter(invoice, plays).statement();
+
+            assertEquals(expected, cache.statement(invoice, plays));
+            // an equal invoice built separately, as on a replayed batch
+            assertEquals(expected, cache.statement(invoice("BigCo", "hamlet", "as-like"), plays));
+
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+            assertEquals(0.5, cache.getHitRate(), 0);
+            assertEquals(expected.length(), cache.getBytes());
+        }
+    }
+
+    @Test
+    public void changedPlayInvalidatesOnlyAffectedEntriesTest() {
+        Map<String, Play> plays = plays();
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        Invoice hamlet = invoice("BigCo", "hamlet");
+        Invoice comedy = invoice("BigCo", "as-like");
+        cache.statement(hamlet, plays);
+        cache.statement(comedy, plays);
+
+        plays.put("hamlet", new Play("Hamlet", "history"));
+
+        assertEquals(new StatementPrinter(hamlet, plays).statement(), cache.statement(hamlet, plays));
+        cache.statement(comedy, plays);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedTest() {
+        Map<String, Play> plays = plays();
+        StatementCache cache = new StatementCache(2, 1 << 20);
+        Invoice first = invoice("A", "hamlet");
+        Invoice second = invoice("B", "hamlet");
+        cache.statement(first, plays);
+        cache.statement(second, plays);
+        cache.statement(first, plays);
+        cache.statement(invoice("C", "hamlet"), plays);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.resetStatistics();
+        cache.statement(first, plays);
+        cache.statement(second, plays);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void respectsByteLimitTest() {
+        Map<String, Play> plays = plays();
+        int size = new StatementPrinter(invoice("Customer 0", "othello"), plays).statement().length();
+        StatementCache cache = new StatementCache(100, 3L * size);
+        for (int i = 0; i < 10; i++) {
+            cache.statement(invoice("Customer " + i, "othello"), plays);
+        }
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.getBytes() <= 3L * size);
+    }
+}
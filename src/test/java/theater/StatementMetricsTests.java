@@ -0,0 +1,106 @@
+package theater;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class StatementMetricsTests {
+
+    private final StatementMetrics metrics = StatementMetrics.get();
+
+    @Before
+    public void enable() {
+        metrics.reset();
+        metrics.setEnabled(true);
+    }
+
+    @After
+    public void disable() {
+        metrics.setEnabled(false);
+        metrics.reset();
+    }
+
+    @Test
+    public void recordsStatementsAndErrorsTest() throws JMException {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("cats", new Play("Cats", "musical"));
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("hamlet", 55), new Performance("hamlet", 20)));
+
+        String statement = new StatementPrinter(invoice, plays).statement();
+        try {
+            new StatementPrinter(new Invoice("Other", List.of(new Performance("cats", 5))), plays).statement();
+        }
+        catch (IllegalArgumentException expected) {
+            // counted below
+        }
+
+        assertEquals(2, metrics.getStatementCount());
+        assertEquals(3, metrics.getPerformanceCount());
+        assertEquals(statement.length(), metrics.getRenderedChars());
+        // the two lines of the first statement and the failing line of the second; totals are timed as a whole
+        assertEquals(3, metrics.getPricingLatency().getCount());
+        assertEquals(0, metrics.getCreditsLatency().getCount());
+        assertEquals(1, metrics.getTotalsLatency().getCount());
+        assertEquals(1, metrics.getRenderingLatency().getCount());
+        assertEquals(Map.of("musical", 1L), metrics.getErrorsByPlayType());
+
+        metrics.register();
+        ObjectName name = new ObjectName(StatementMetrics.OBJECT_NAME);
+        assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "StatementCount"));
+        CompositeData latency = (CompositeData) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(name, "ConstructionLatency");
+        assertEquals(2L, latency.get("count"));
+    }
+
+    @Test
+    public void largeTotalsKeepTheParallelPathTest() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("cats", new Play("Cats", "musical"));
+        List<Performance> performances = new ArrayList<>();
+        for (int i = 0; i < Statement.PARALLEL_THRESHOLD; i++) {
+            performances.add(new Performance("hamlet", i % 100));
+        }
+        Statement statement = new Statement(new Invoice("BigCo", performances), plays);
+        metrics.setEnabled(false);
+        long expected = new Statement(new Invoice("BigCo", performances), plays).totalAmount();
+        metrics.setEnabled(true);
+
+        assertEquals(expected, statement.totalAmount());
+        assertEquals(1, metrics.getTotalsLatency().getCount());
+        // no line was priced on its own
+        assertEquals(0, metrics.getPricingLatency().getCount());
+
+        performances.set(performances.size() - 1, new Performance("cats", 5));
+        try {
+            new Statement(new Invoice("BigCo", performances), plays).totalAmount();
+        }
+        catch (IllegalArgumentException expectedError) {
+            // counted below
+        }
+        assertEquals(Map.of("musical", 1L), metrics.getErrorsByPlayType());
+        assertEquals(2, metrics.getTotalsLatency().getCount());
+    }
+
+    @Test
+    public void disabledRecordsNothingTest() {
+        metrics.setEnabled(false);
+        Map<String, Play> plays = Map.of("hamlet", new Play("Hamlet", "tragedy"));
+        new StatementPrinter(new Invoice("BigCo", List.of(new Performance("hamlet", 55))), plays).statement();
+
+        assertEquals(0, metrics.getStatementCount());
+        assertTrue(metrics.getErrorsByPlayType().isEmpty());
+    }
+}
@@ -66,4 +66,19 @@ public class StatementPrinterTests {
         }
 
     }
+
+    @Test
+    public void exampleTotalsTest() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("othello", new Play("Othello", "tragedy"));
+        Invoice invoice = new Invoice("BigCo", List.of(new Performance("hamlet", 55),
+                new Performance("as-like", 35), new Performance("othello", 40)));
+
+        StatementPrinter printer = new StatementPrinter(invoice, plays);
+        assertEquals(173000, printer.getTotalAmount());
+        // 25 for Hamlet, 5 plus 7 extra comedy credits for As You Like It, 10 for Othello
+        assertEquals(47, printer.getTotalVolumeCredits());
+    }
 }
@@ -0,0 +1,88 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class StatementServiceTests {
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        return plays;
+    }
+
+    @Test
+    public void rendersRequestsInBatchesTest() throws Exception {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            invoices.add(new Invoice("Customer " + i,
+                    List.of(new Performance("hamlet", i % 70), new Performance("as-like", 35))));
+        }
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        try (StatementService service = new StatementService(new LiveCatalog(plays),
+                new PlainTextStatementRenderer(), 2, 1000, 16, TimeUnit.MILLISECONDS.toNanos(1))) {
+            for (Invoice invoice : invoices) {
+                results.add(service.submit(invoice));
+            }
+            for (int i = 0; i < invoices.size(); i++) {
+                assertEquals(new StatementPrinter(invoices.get(i), plays).statement(),
+                        results.get(i).get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(invoices.size(), service.getCompleted());
+            assertEquals(invoices.size(), service.latency().getCount());
+            assertTrue(service.getBatches() < invoices.size());
+        }
+    }
+
+    @Test
+    public void failedInvoiceDoesNotAffectBatchTest() throws Exception {
+        try (StatementService service = new StatementService(new LiveCatalog(plays()))) {
+            CompletableFuture<String> unknown = service.submit(
+                    new Invoice("BigCo", List.of(new Performance("cats", 10))));
+            CompletableFuture<String> known = service.submit(
+                    new Invoice("BigCo", List.of(new Performance("hamlet", 10))));
+
+            assertTrue(known.get(10, TimeUnit.SECONDS).startsWith("Statement for BigCo"));
+            try {
+                unknown.join();
+                fail("expected the unknown play to fail");
+            }
+            catch (CompletionException expected) {
+                assertTrue(expected.getCause() instanceof IllegalArgumentException);
+            }
+            assertEquals(2, service.getCompleted());
+            assertEquals(2, service.latency().getCount());
+        }
+    }
+
+    @Test
+    public void closedServiceRejectsRequestsTest() throws Exception {
+        StatementService service = new StatementService(new LiveCatalog(plays()));
+        service.close();
+
+        CompletableFuture<String> result = service.submit(new Invoice("BigCo", List.of()));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(1, service.getRejected());
+        try {
+            result.join();
+            fail("expected the request to be rejected");
+        }
+        catch (CompletionException expected) {
+            assertTrue(expected.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
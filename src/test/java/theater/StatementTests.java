@@ -0,0 +1,135 @@
+package theater;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class StatementTests {
+
+    @Test
+    public void lazyTotalsMatchPerLineSumsTest() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("henry-v", new Play("Henry V", "history"));
+        plays.put("arcadia", new Play("Arcadia", "pastoral"));
+        String[] ids = plays.keySet().toArray(new String[0]);
+        Random random = new Random(3);
+        List<Performance> performances = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            performances.add(new Performance(ids[random.nextInt(ids.length)], random.nextInt(100)));
+        }
+        Invoice invoice = new Invoice("BigCo", performances);
+
+        for (Statement statement : List.of(new Statement(invoice, plays),
+                new Statement(invoice, PlayCatalog.of(plays)))) {
+            // totals first, so they are computed without the per-line list
+            long totalAmount = statement.totalAmount();
+            long volumeCredits = statement.volumeCredits();
+
+            long expectedAmount = 0;
+            long expectedCredits = 0;
+            for (PerformanceData performanceData : statement.getPerformances()) {
+                expectedAmount += performanceData.amountFor();
+                expectedCredits += performanceData.volumeCredits();
+            }
+            assertEquals(expectedAmount, totalAmount);
+            assertEquals(expectedCredits, volumeCredits);
+            assertSame(statement.getPerformances(), statement.getPerformances());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPlayFailsWhenUsedTest() {
+        Statement statement = new Statement(new Invoice("BigCo", List.of(new Performance("cats", 10))),
+                new HashMap<>());
+        statement.totalAmount();
+    }
+
+    @Test
+    public void parallelTotalsMatchSequentialTest() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("arcadia", new Play("Arcadia", "pastoral"));
+        String[] ids = plays.keySet().toArray(new String[0]);
+        Random random = new Random(17);
+        List<Performance> performances = new ArrayList<>();
+        long expectedAmount = 0;
+        long expectedCredits = 0;
+        for (int i = 0; i < Statement.PARALLEL_THRESHOLD * 3 + 7; i++) {
+            Performance performance = new Performance(ids[random.nextInt(ids.length)], random.nextInt(40));
+            performances.add(performance);
+            PerformanceCalculator calculator = plays.get(performance.getPlayID()).getCalculator();
+            expectedAmount += calculator.amountFor(performance.getAudience());
+            expectedCredits += calculator.volumeCredits(performance.getAudience());
+        }
+
+        for (List<Performance> list : List.of(performances, new LinkedList<>(performances))) {
+            Invoice invoice = new Invoice("BigCo", list);
+            for (Statement statement : List.of(new Statement(invoice, plays),
+                    new Statement(invoice, PlayCatalog.of(plays)))) {
+                assertEquals(expectedAmount, statement.totalAmount());
+                assertEquals(expectedCredits, statement.volumeCredits());
+            }
+        }
+    }
+
+    @Test
+    public void totalsBeyondIntRangeAreExactTest() {
+        Map<String, Play> plays = Map.of("hamlet", new Play("Hamlet", "tragedy"));
+        for (int size : new int[] {30, Statement.PARALLEL_THRESHOLD}) {
+            List<Performance> performances = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                performances.add(new Performance("hamlet", 100000));
+            }
+            Statement statement = new Statement(new Invoice("BigCo", performances), plays);
+
+            assertEquals(size * (40000L + 1000L * (100000 - 30)), statement.totalAmount());
+            assertEquals(size * (100000L - 30), statement.volumeCredits());
+        }
+    }
+
+    @Test
+    public void parallelTotalsReportTheOriginalErrorTest() {
+        Map<String, Play> plays = Map.of("hamlet", new Play("Hamlet", "tragedy"));
+        List<Performance> performances = new ArrayList<>();
+        for (int i = 0; i < Statement.PARALLEL_THRESHOLD * 2; i++) {
+            performances.add(new Performance("cats", 10));
+        }
+        try {
+            new Statement(new Invoice("BigCo", performances), plays).totalAmount();
+            fail("expected the unknown play to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            assertEquals("unknown play: cats", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void totalsBeyondLongRangeFailOnBothPathsTest() {
+        PlayTypeRegistry registry = new PlayTypeRegistry();
+        registry.register("epic", new PricingRule(0, 0, 0, 0, Integer.MAX_VALUE, 0, 0));
+        Map<String, Play> plays = Map.of("ring", new Play("The Ring", "epic", registry));
+        // each performance is worth just under 2^62 cents, so three of them overflow
+        for (int size : new int[] {3, Statement.PARALLEL_THRESHOLD}) {
+            List<Performance> performances = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                performances.add(new Performance("ring", Integer.MAX_VALUE));
+            }
+            try {
+                new Statement(new Invoice("BigCo", performances), plays).totalAmount();
+                fail("expected the total to overflow");
+            }
+            catch (ArithmeticException expected) {
+                assertTrue(expected.getMessage().startsWith("amount out of range"));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package theater;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class StatementWriterTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Play> plays() {
+        Map<String, Play> plays = new HashMap<>();
+        plays.put("hamlet", new Play("Hamlet", "tragedy"));
+        plays.put("as-like", new Play("As You Like It", "comedy"));
+        plays.put("arcadia", new Play("Arcadia été", "pastoral"));
+        return plays;
+    }
+
+    private static Invoice invoice(int i) {
+        List<Performance> performances = new ArrayList<>();
+        for (int j = 0; j < i % 9; j++) {
+            performances.add(new Performance(j % 3 == 0 ? "hamlet" : j % 3 == 1 ? "as-like" : "arcadia", 10 * j + i % 7));
+        }
+        return new Invoice("Customer " + i, performances);
+    }
+
+    @Test
+    public void allTargetsMatchStatementTest() throws IOException {
+        Map<String, Play> plays = plays();
+        StatementWriter writer = new StatementWriter();
+        for (int i = 0; i < 20; i++) {
+            Invoice invoice = invoice(i);
+            String expected = new StatementPrinter(invoice, plays).statement();
+            Statement statement = new Statement(invoice, plays);
+
+            StringWriter chars = new StringWriter();
+            writer.write(statement, chars);
+            assertEquals(expected, chars.toString());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.write(statement, bytes);
+            assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            buffer.put((byte) '>');
+            int written = writer.write(statement, buffer);
+            assertEquals(buffer.position() - 1, written);
+            assertEquals(">" + expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void overflowLeavesBufferUnchangedTest() {
+        StatementWriter writer = new StatementWriter();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 1);
+        try {
+            writer.write(new Statement(invoice(8), plays()), buffer);
+            fail("expected the statement not to fit");
+        }
+        catch (BufferOverflowException expected) {
+            assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    public void exportConcatenatesStatementsTest() throws IOException {
+        Map<String, Play> plays = plays();
+        List<Invoice> invoices = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            invoices.add(invoice(i));
+            expected.append(new StatementPrinter(invoices.get(i), plays).statement());
+        }
+
+        // smaller than most statements, so both the flush and the oversized path are taken
+        for (int bufferSize : new int[] {100, StatementExporter.DEFAULT_BUFFER_SIZE}) {
+            Path file = folder.newFile().toPath();
+            long written = new StatementExporter(plays, new StatementWriter(), bufferSize).export(invoices, file);
+
+            assertEquals(Files.size(file), written);
+            assertEquals(expected.toString(), Files.readString(file));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package theater;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class StreamingStatementPrinterTests {
+
+    private static String loadString(String path) {
+        try {
+            return new String(Objects.requireNonNull(StreamingStatementPrinterTests.class
+                            .getClassLoader()
+                            .getResourceAsStream(path))
+                    .readAllBytes());
+        }
+        catch (IOException exception) {
+                fail("resource file could not be loaded prior to test executing");
+            }
+        return "";
+    }
+
+    private static Reader openResource(String path) {
+        return new InputStreamReader(Objects.requireNonNull(StreamingStatementPrinterTests.class
+                .getClassLoader()
+                .getResourceAsStream(path)), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Play> loadPlays(String path) {
+        JSONObject a = new JSONObject(loadString(path));
+        Map<String, Play> plays = new HashMap<>();
+        for (String s : a.keySet()) {
+            JSONObject play = (JSONObject) a.get(s);
+            plays.put(s, new Play(play.getString("name"), play.getString("type")));
+        }
+        return plays;
+    }
+
+    @Test
+    public void streamedStatementMatchesExampleTest() throws IOException {
+        String expected = loadString("ExampleStatement.txt");
+        Map<String, Play> plays = loadPlays("plays.json");
+
+        StringBuilder result = new StringBuilder();
+        try (Reader in = openResource("invoices.json")) {
+            new InvoiceStreamReader(in).readAll(new StreamingStatementPrinter(plays, result));
+        }
+
+        assertEquals(expected.replace("\r\n", "\n"), result.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void streamedHtmlMatchesExampleTest() throws IOException {
+        String expected = loadString("HTMLStatementExample.html");
+        Map<String, Play> plays = loadPlays("plays.json");
+
+        StringBuilder result = new StringBuilder();
+        try (Reader in = openResource("invoices.json")) {
+            new InvoiceStreamReader(in).readAll(
+                    new StreamingStatementPrinter(plays, result, new HtmlStatementRenderer()));
+        }
+
+        assertEquals(expected.replace("\r\n", "\n"), result.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void performancesBeforeCustomerTest() throws IOException {
+        String expected = loadString("ExampleStatement.txt");
+        Map<String, Play> plays = loadPlays("plays.json");
+        String reordered = "[{\"performances\": [{\"audience\": 55, \"playID\": \"hamlet\"},"
+                + " {\"playID\": \"as-like\", \"audience\": 35},"
+                + " {\"playID\": \"othello\", \"audience\": 40, \"note\": [1, {\"x\": null}]}],"
+                + " \"customer\": \"BigCo\"}]";
+
+        StringBuilder result = new StringBuilder();
+        new InvoiceStreamReader(new StringReader(reordered)).readAll(new StreamingStatementPrinter(plays, result));
+
+        assertEquals(expected.replace("\r\n", "\n"), result.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void unknownPlayTest() throws IOException {
+        try {
+            new InvoiceStreamReader(new StringReader("[{\"customer\": \"BigCo\", \"performances\": "
+                    + "[{\"playID\": \"cats\", \"audience\": 9}]}]"))
+                    .readAll(new StreamingStatementPrinter(loadPlays("plays.json"), new StringBuilder()));
+            fail("expected the unknown play to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            assertEquals("unknown play: cats", expected.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedInputTest() throws IOException {
+        new InvoiceStreamReader(new StringReader("[{\"customer\": \"BigCo\", \"performances\": [}]"))
+                .readAll(new StreamingStatementPrinter(new HashMap<>(), new StringBuilder()));
+    }
+}